@@ -0,0 +1,67 @@
+package org.capitalgains.benchmark;
+
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationType;
+import org.capitalgains.model.Tax;
+import org.capitalgains.session.AccountContextStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Run with -t 1, -t 2, ... -t <cores> to check how throughput scales
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountContextStoreBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class StoreState {
+        @Param({"1000000"})
+        public int accounts;
+
+        public AccountContextStore store;
+
+        @Setup
+        public void setUp() {
+            store = new AccountContextStore();
+            Operation buy = operation(OperationType.BUY, 100, 10.0);
+            for (long accountId = 0; accountId < accounts; accountId++) {
+                store.apply(accountId, buy);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final SplittableRandom random = new SplittableRandom();
+        final Operation buy = operation(OperationType.BUY, 1, 12.0);
+        final Operation sell = operation(OperationType.SELL, 1, 15.0);
+    }
+
+    @Benchmark
+    public Tax applyRandomAccount(StoreState state, ThreadState thread) {
+        long accountId = thread.random.nextInt(state.accounts);
+        return state.store.apply(accountId, thread.random.nextBoolean() ? thread.buy : thread.sell);
+    }
+
+    private static Operation operation(OperationType type, int quantity, double unitCost) {
+        Operation operation = new Operation();
+        operation.setOperationType(type);
+        operation.setQuantity(quantity);
+        operation.setUnitCost(unitCost);
+        return operation;
+    }
+}
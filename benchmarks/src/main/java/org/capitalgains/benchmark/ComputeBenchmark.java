@@ -0,0 +1,81 @@
+package org.capitalgains.benchmark;
+
+import org.capitalgains.model.OperationBatch;
+import org.capitalgains.model.Tax;
+import org.capitalgains.service.MediumPriceCalculator;
+import org.capitalgains.service.MediumPriceCalculatorImpl;
+import org.capitalgains.service.TaxCalculator;
+import org.capitalgains.service.TaxCalculatorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComputeBenchmark {
+
+    @State(Scope.Thread)
+    public static class KernelState {
+        final TaxCalculator taxCalculator = new TaxCalculatorImpl();
+        final MediumPriceCalculator mediumPriceCalculator = new MediumPriceCalculatorImpl();
+        final BigDecimalTaxKernel bigDecimalKernel = new BigDecimalTaxKernel();
+    }
+
+    @Benchmark
+    public List<Tax> handlerOperationList(PortfolioState portfolio) {
+        return portfolio.doubleHandler.calculateTaxes(portfolio.operations);
+    }
+
+    @Benchmark
+    public double[] batchDouble(PortfolioState portfolio) {
+        portfolio.doubleHandler.calculateTaxes(portfolio.batch, portfolio.taxValues);
+        return portfolio.taxValues;
+    }
+
+    @Benchmark
+    public double[] batchFixedPoint(PortfolioState portfolio) {
+        portfolio.fixedPointHandler.calculateTaxes(portfolio.batch, portfolio.taxValues);
+        return portfolio.taxValues;
+    }
+
+    @Benchmark
+    public double[] batchBigDecimal(PortfolioState portfolio, KernelState kernels) {
+        kernels.bigDecimalKernel.calculateTaxes(portfolio.batch, portfolio.taxValues);
+        return portfolio.taxValues;
+    }
+
+    // Each sell priced against a fixed average isolates TaxCalculatorImpl.calculateTax
+    @Benchmark
+    public double taxCalculator(PortfolioState portfolio, KernelState kernels) {
+        OperationBatch batch = portfolio.batch;
+        double total = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            total += kernels.taxCalculator.calculateTax(batch.getUnitCost()[i], 50.0, 1000.0, batch.getQuantity()[i]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double mediumPriceCalculator(PortfolioState portfolio, KernelState kernels) {
+        OperationBatch batch = portfolio.batch;
+        double mediumPrice = 0;
+        int stocksQuantity = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            mediumPrice = kernels.mediumPriceCalculator.calculate(batch.getUnitCost()[i], mediumPrice, stocksQuantity, batch.getQuantity()[i]);
+            stocksQuantity += batch.getQuantity()[i];
+        }
+        return mediumPrice;
+    }
+}
@@ -0,0 +1,89 @@
+package org.capitalgains.benchmark;
+
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandler;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
+import org.capitalgains.handler.OperationTypeRegistry;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
+import org.capitalgains.model.OperationType;
+import org.capitalgains.model.Tax;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Buy/sell portfolios with and without the extra operation types registered; the scores should match
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OperationTypeDispatchBenchmark {
+
+    @Param({"10000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean extraTypesRegistered;
+
+    private CapitalGainsTaxCalculatorHandler handler;
+    private OperationBatch batch;
+    private List<Operation> operations;
+    private double[] taxes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        OperationTypeRegistry registry = new OperationTypeRegistry();
+        if (extraTypesRegistered) {
+            // Distinct classes, so the registered-type call site would be megamorphic if it were the hot one
+            registry.register(OperationType.SPLIT, (operation, context) -> {
+                context.setMediumPriceValue(context.getMediumPriceValue() / operation.getQuantity());
+                context.setStocksQuantity(context.getStocksQuantity() * operation.getQuantity());
+                return new Tax(0);
+            });
+            registry.register(OperationType.BONUS, (operation, context) -> {
+                context.addStocksQuantity(operation.getQuantity());
+                return new Tax(0);
+            });
+            registry.register(OperationType.DIVIDEND_IN_KIND, (operation, context) -> {
+                context.addStocksQuantity(operation.getQuantity());
+                return new Tax(0);
+            });
+            registry.register(OperationType.TRANSFER_IN, (operation, context) -> {
+                context.addStocksQuantity(operation.getQuantity());
+                return new Tax(0);
+            });
+            registry.register(OperationType.TRANSFER_OUT, (operation, context) -> {
+                context.removeStocksQuantity(operation.getQuantity());
+                return new Tax(0);
+            });
+        }
+        handler = new CapitalGainsTaxCalculatorHandlerImpl(registry);
+        batch = PortfolioGenerator.generate(size, 0.4, 42);
+        operations = PortfolioGenerator.toOperations(batch);
+        taxes = new double[size];
+    }
+
+    @Benchmark
+    public double[] batchKernel() {
+        handler.calculateTaxes(batch, taxes);
+        return taxes;
+    }
+
+    @Benchmark
+    public List<Tax> operationList() {
+        return handler.calculateTaxes(operations);
+    }
+}
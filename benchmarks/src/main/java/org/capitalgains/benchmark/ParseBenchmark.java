@@ -0,0 +1,74 @@
+package org.capitalgains.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.capitalgains.io.BinaryOperationReader;
+import org.capitalgains.io.OperationByteParser;
+import org.capitalgains.io.OperationStreamReader;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    @State(Scope.Thread)
+    public static class ParserState {
+        final OperationByteParser parser = new OperationByteParser();
+        final OperationBatch batch = new OperationBatch();
+    }
+
+    @Benchmark
+    public List<Operation> jacksonDatabindString(PortfolioState portfolio) throws IOException {
+        return portfolio.mapper.readValue(portfolio.json, new TypeReference<>() {});
+    }
+
+    @Benchmark
+    public List<Operation> jacksonDatabindBytes(PortfolioState portfolio) throws IOException {
+        return portfolio.mapper.readValue(portfolio.jsonBytes, new TypeReference<>() {});
+    }
+
+    @Benchmark
+    public void jacksonStreaming(PortfolioState portfolio, Blackhole blackhole) throws IOException {
+        try (OperationStreamReader reader = new OperationStreamReader(portfolio.mapper.getFactory(), new ByteArrayInputStream(portfolio.jsonBytes))) {
+            reader.nextLine();
+            Operation operation;
+            while ((operation = reader.nextOperation()) != null) {
+                blackhole.consume(operation.getQuantity());
+            }
+        }
+    }
+
+    @Benchmark
+    public OperationBatch schemaParser(PortfolioState portfolio, ParserState state) throws IOException {
+        state.batch.clear();
+        state.parser.parse(portfolio.jsonBytes, 0, portfolio.jsonBytes.length, state.batch);
+        return state.batch;
+    }
+
+    @Benchmark
+    public OperationBatch binaryReader(PortfolioState portfolio, ParserState state) throws IOException {
+        try (BinaryOperationReader reader = new BinaryOperationReader(Channels.newChannel(new ByteArrayInputStream(portfolio.binaryBytes)))) {
+            reader.next(state.batch);
+        }
+        return state.batch;
+    }
+}
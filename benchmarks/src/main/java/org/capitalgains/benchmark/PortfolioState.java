@@ -0,0 +1,61 @@
+package org.capitalgains.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.capitalgains.handler.ArithmeticEngine;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandler;
+import org.capitalgains.io.BinaryOperationWriter;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
+import org.capitalgains.model.Tax;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// One generated portfolio in every representation the stages consume
+@State(Scope.Benchmark)
+public class PortfolioState {
+
+    @Param({"100", "10000", "1000000"})
+    public int size;
+
+    @Param({"0.2", "0.5", "0.8"})
+    public double sellRatio;
+
+    @Param({"RANDOM", "PROFIT", "LOSS"})
+    public PortfolioGenerator.Trend trend;
+
+    public final ObjectMapper mapper = new ObjectMapper();
+    public final CapitalGainsTaxCalculatorHandler doubleHandler = ArithmeticEngine.DOUBLE.createHandler();
+    public final CapitalGainsTaxCalculatorHandler fixedPointHandler = ArithmeticEngine.FIXED_POINT.createHandler();
+
+    public OperationBatch batch;
+    public List<Operation> operations;
+    public String json;
+    public byte[] jsonBytes;
+    public byte[] binaryBytes;
+    public List<Tax> taxes;
+    public double[] taxValues;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        batch = PortfolioGenerator.generate(size, sellRatio, trend, 42);
+        operations = PortfolioGenerator.toOperations(batch);
+        json = PortfolioGenerator.toJson(batch);
+        jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        try (BinaryOperationWriter writer = new BinaryOperationWriter(binary)) {
+            writer.writeLine(batch);
+        }
+        binaryBytes = binary.toByteArray();
+        taxes = doubleHandler.calculateTaxes(operations);
+        taxValues = new double[size];
+        doubleHandler.calculateTaxes(batch, taxValues);
+    }
+}
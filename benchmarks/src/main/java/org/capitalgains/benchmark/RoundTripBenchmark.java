@@ -0,0 +1,60 @@
+package org.capitalgains.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.capitalgains.io.OperationByteParser;
+import org.capitalgains.io.TaxStreamWriter;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
+import org.capitalgains.model.Tax;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Whole line, from input text to output text
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoundTripBenchmark {
+
+    @State(Scope.Thread)
+    public static class LineState {
+        final OperationByteParser parser = new OperationByteParser();
+        final OperationBatch batch = new OperationBatch();
+        double[] taxes = new double[0];
+    }
+
+    // Same steps as the default Main loop
+    @Benchmark
+    public String jacksonDatabind(PortfolioState portfolio) throws IOException {
+        List<Operation> operations = portfolio.mapper.readValue(portfolio.json, new TypeReference<>() {});
+        List<Tax> taxes = portfolio.doubleHandler.calculateTaxes(operations);
+        return portfolio.mapper.writeValueAsString(taxes);
+    }
+
+    // Same steps as the --input mode
+    @Benchmark
+    public void schemaParserBatch(PortfolioState portfolio, LineState state) throws IOException {
+        state.batch.clear();
+        state.parser.parse(portfolio.jsonBytes, 0, portfolio.jsonBytes.length, state.batch);
+        if (state.taxes.length < state.batch.size()) {
+            state.taxes = new double[state.batch.size()];
+        }
+        portfolio.doubleHandler.calculateTaxes(state.batch, state.taxes);
+        try (TaxStreamWriter writer = new TaxStreamWriter(portfolio.mapper.getFactory(), OutputStream.nullOutputStream())) {
+            writer.writeLine(state.taxes, state.batch.size());
+        }
+    }
+}
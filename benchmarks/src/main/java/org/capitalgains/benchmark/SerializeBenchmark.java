@@ -0,0 +1,34 @@
+package org.capitalgains.benchmark;
+
+import org.capitalgains.io.TaxStreamWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializeBenchmark {
+
+    @Benchmark
+    public String jacksonDatabindString(PortfolioState portfolio) throws IOException {
+        return portfolio.mapper.writeValueAsString(portfolio.taxes);
+    }
+
+    @Benchmark
+    public void taxStreamWriter(PortfolioState portfolio) throws IOException {
+        try (TaxStreamWriter writer = new TaxStreamWriter(portfolio.mapper.getFactory(), OutputStream.nullOutputStream())) {
+            writer.writeLine(portfolio.taxValues, portfolio.size);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.capitalgains.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Time from launching a fresh JVM on the assembled program until its first output line, with and without the class data archive.
+// Run from the project root after mvn package, or point -Dcapitalgains.home at another target/appassembler
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Thread)
+public class StartupBenchmark {
+
+    private static final Pattern CLASSPATH = Pattern.compile("^CLASSPATH=(.*)$", Pattern.MULTILINE);
+    private static final String INPUT = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":10000},"
+            + "{\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\":5000}]\n\n";
+
+    @Param({"none", "appcds"})
+    public String archive;
+
+    private List<String> command;
+    private Process process;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path home = Path.of(System.getProperty("capitalgains.home", "target/appassembler")).toAbsolutePath().normalize();
+        Path archiveFile = home.resolve("lib/capitalgains.jsa");
+        if ("appcds".equals(archive) && !Files.exists(archiveFile)) {
+            throw new IllegalStateException("No class data archive at " + archiveFile);
+        }
+        // The archive only matches the exact class path it was dumped with, so it is taken from the launcher
+        Matcher matcher = CLASSPATH.matcher(Files.readString(home.resolve("bin/capitalgains")));
+        if (!matcher.find()) {
+            throw new IllegalStateException("No class path in the launcher under " + home);
+        }
+        String classPath = matcher.group(1).replace("\"$REPO\"", home.resolve("lib").toString());
+
+        command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if ("appcds".equals(archive)) {
+            command.add("-XX:SharedArchiveFile=" + archiveFile);
+            command.add("-Xlog:cds=off,cds+dynamic=off");
+        }
+        command.add("-classpath");
+        command.add(classPath);
+        command.add("org.capitalgains.Main");
+    }
+
+    @Benchmark
+    public String firstOutput() throws IOException {
+        process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        try (OutputStream in = process.getOutputStream()) {
+            in.write(INPUT.getBytes(StandardCharsets.UTF_8));
+        }
+        BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        return out.readLine();
+    }
+
+    @TearDown(Level.Invocation)
+    public void awaitExit() throws InterruptedException {
+        process.waitFor();
+    }
+}
@@ -0,0 +1,59 @@
+package org.capitalgains.benchmark;
+
+import org.capitalgains.service.TaxCalculator;
+import org.capitalgains.service.TaxKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Independent what-if sells against one position, scalar against jdk.incubator.vector lanes
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class TaxKernelBenchmark {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    @Param({"scalar", "vector"})
+    String kernel;
+
+    private TaxCalculator taxCalculator;
+    private double[] prices;
+    private int[] quantities;
+    private double[] taxes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taxCalculator = TaxKernel.fromOptionName(kernel).createTaxCalculator();
+        Random random = new Random(42L);
+        prices = new double[size];
+        quantities = new int[size];
+        taxes = new double[size];
+        for (int i = 0; i < size; i++) {
+            prices[i] = Math.round(random.nextDouble() * 10_000) / 100.0;
+            quantities[i] = 1 + random.nextInt(10_000);
+        }
+    }
+
+    @Benchmark
+    public double[] whatIfSells() {
+        taxCalculator.calculateTaxes(prices, 50.0, 1000.0, quantities, taxes, size);
+        return taxes;
+    }
+}
@@ -0,0 +1,225 @@
+package org.capitalgains;
+
+import org.capitalgains.handler.ArithmeticEngine;
+import org.capitalgains.pipeline.WaitStrategy;
+
+import java.nio.file.Path;
+
+public class CommandLineOptions {
+    private boolean streaming;
+    private int threads = 1;
+    private boolean pipeline;
+    private int parsers;
+    private WaitStrategy waitStrategy;
+    private ArithmeticEngine arithmeticEngine = ArithmeticEngine.DOUBLE;
+    private Path input;
+    private boolean schemaParser = true;
+    private boolean binaryFormat;
+    private int cacheSizeMiB;
+    private boolean metrics;
+    private boolean metricsSummary;
+    private int serverPort;
+    private boolean daemon;
+    private boolean useDaemon;
+    private Path socketPath;
+
+    public static CommandLineOptions parse(String[] args) {
+        CommandLineOptions options = new CommandLineOptions();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--stream":
+                    options.streaming = true;
+                    break;
+                case "--threads":
+                    options.threads = parsePositiveInt(args, ++i);
+                    break;
+                case "--pipeline":
+                    options.pipeline = true;
+                    break;
+                case "--parsers":
+                    options.parsers = parsePositiveInt(args, ++i);
+                    break;
+                case "--wait-strategy":
+                    options.waitStrategy = WaitStrategy.fromOptionName(requireValue(args, ++i));
+                    break;
+                case "--arithmetic":
+                    options.arithmeticEngine = ArithmeticEngine.fromOptionName(requireValue(args, ++i));
+                    break;
+                case "--input":
+                    options.input = Path.of(requireValue(args, ++i));
+                    break;
+                case "--parser":
+                    options.schemaParser = parseParser(requireValue(args, ++i));
+                    break;
+                case "--format":
+                    options.binaryFormat = parseFormat(requireValue(args, ++i));
+                    break;
+                case "--cache":
+                    options.cacheSizeMiB = parsePositiveInt(args, ++i);
+                    break;
+                case "--serve":
+                    options.serverPort = parsePositiveInt(args, ++i);
+                    break;
+                case "--daemon":
+                    options.daemon = true;
+                    break;
+                case "--use-daemon":
+                    options.useDaemon = true;
+                    break;
+                case "--socket":
+                    options.socketPath = Path.of(requireValue(args, ++i));
+                    break;
+                case "--metrics":
+                    options.metrics = true;
+                    break;
+                case "--metrics-summary":
+                    options.metrics = true;
+                    options.metricsSummary = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (options.streaming && options.threads > 1) {
+            throw new IllegalArgumentException("--stream cannot be combined with --threads");
+        }
+        if (options.binaryFormat && (options.streaming || options.threads > 1)) {
+            throw new IllegalArgumentException("--format binary cannot be combined with --stream or --threads");
+        }
+        if (options.pipeline && (options.streaming || options.threads > 1 || options.binaryFormat)) {
+            throw new IllegalArgumentException("--pipeline cannot be combined with --stream, --threads or --format binary");
+        }
+        if (options.cacheSizeMiB > 0 && (options.streaming || options.threads > 1 || options.pipeline || options.binaryFormat)) {
+            throw new IllegalArgumentException("--cache cannot be combined with --stream, --threads, --pipeline or --format binary");
+        }
+        if (options.daemon && options.serverPort > 0) {
+            throw new IllegalArgumentException("--daemon cannot be combined with --serve");
+        }
+        if ((options.daemon || options.serverPort > 0) && (options.streaming || options.threads > 1 || options.pipeline
+                || options.input != null || options.binaryFormat || options.cacheSizeMiB > 0)) {
+            throw new IllegalArgumentException("--serve and --daemon cannot be combined with --stream, --threads, --pipeline, --input, --format binary or --cache");
+        }
+        if (options.useDaemon && (options.daemon || options.streaming || options.threads > 1 || options.pipeline
+                || options.cacheSizeMiB > 0 || options.input != null || options.serverPort > 0 || options.metrics || options.binaryFormat)) {
+            throw new IllegalArgumentException("--use-daemon only works with the default stdin mode and --arithmetic");
+        }
+        if (!options.pipeline && (options.parsers > 0 || options.waitStrategy != null)) {
+            throw new IllegalArgumentException("--parsers and --wait-strategy require --pipeline");
+        }
+        return options;
+    }
+
+    private static boolean parseParser(String value) {
+        switch (value) {
+            case "schema":
+                return true;
+            case "jackson":
+                return false;
+            default:
+                throw new IllegalArgumentException("Unknown parser: " + value);
+        }
+    }
+
+    private static boolean parseFormat(String value) {
+        switch (value) {
+            case "binary":
+                return true;
+            case "json":
+                return false;
+            default:
+                throw new IllegalArgumentException("Unknown format: " + value);
+        }
+    }
+
+    private static String requireValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option: " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static int parsePositiveInt(String[] args, int index) {
+        String value = requireValue(args, index);
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Expected a positive number for " + args[index - 1] + " but got: " + value);
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean isPipeline() {
+        return pipeline;
+    }
+
+    // Parser stages of the pipeline
+    public int getParsers() {
+        return parsers > 0 ? parsers : 1;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy != null ? waitStrategy : WaitStrategy.PARK;
+    }
+
+    public ArithmeticEngine getArithmeticEngine() {
+        return arithmeticEngine;
+    }
+
+    // Null when reading from stdin
+    public Path getInput() {
+        return input;
+    }
+
+    public boolean isSchemaParser() {
+        return schemaParser;
+    }
+
+    // Binary operations in and binary taxes out instead of JSON lines
+    public boolean isBinaryFormat() {
+        return binaryFormat;
+    }
+
+    // 0 when repeated lines are not cached
+    public int getCacheSizeMiB() {
+        return cacheSizeMiB;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metrics;
+    }
+
+    // 0 unless running as an HTTP server
+    public int getServerPort() {
+        return serverPort;
+    }
+
+    public boolean isDaemon() {
+        return daemon;
+    }
+
+    // Hand stdin to a running daemon instead of calculating in process
+    public boolean isDaemonClient() {
+        return useDaemon;
+    }
+
+    // Null for the default socket of the current user
+    public Path getSocketPath() {
+        return socketPath;
+    }
+
+    // Print the metrics to stderr when the JVM exits
+    public boolean isMetricsSummary() {
+        return metricsSummary;
+    }
+}
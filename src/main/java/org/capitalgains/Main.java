@@ -3,44 +3,353 @@ package org.capitalgains;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.capitalgains.cache.LineResultCache;
 import org.capitalgains.handler.CapitalGainsTaxCalculatorHandler;
-import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
+import org.capitalgains.io.BinaryOperationReader;
+import org.capitalgains.io.BinaryTaxWriter;
+import org.capitalgains.io.MappedLineReader;
+import org.capitalgains.io.OperationLineDecoder;
+import org.capitalgains.io.OperationStreamReader;
+import org.capitalgains.io.TaxStreamWriter;
+import org.capitalgains.jfr.FlightRecording;
+import org.capitalgains.jfr.LineParseEvent;
+import org.capitalgains.jfr.OutputWriteEvent;
+import org.capitalgains.metrics.MetricsRegistry;
+import org.capitalgains.metrics.Stage;
+import org.capitalgains.model.CapitalGainsContext;
 import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
 import org.capitalgains.model.Tax;
+import org.capitalgains.pipeline.PipelineLineProcessor;
+import org.capitalgains.server.CapitalGainsDaemon;
+import org.capitalgains.server.CapitalGainsHttpServer;
+import org.capitalgains.server.DaemonClient;
 
+import javax.management.JMException;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.List;
 
 public class Main {
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
     public static void main(String[] args) {
         try {
+            CommandLineOptions options = CommandLineOptions.parse(args);
+            // Checked before anything else is initialized, a client only needs the socket
+            if (options.isDaemonClient() && new DaemonClient(socketPath(options)).run(options.getArithmeticEngine(), System.in, System.out)) {
+                return;
+            }
             ObjectMapper mapper = new ObjectMapper();
-            BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(System.in));
-
-            String line;
-            while ((line = bufferedReader.readLine()) != null && !line.isEmpty()) {
-                // Parse each line as an array of Operations
-                List<Operation> operations = mapper.readValue(line, new TypeReference<>() {});
+            LineResultCache resultCache = options.getCacheSizeMiB() > 0 ? new LineResultCache((long) options.getCacheSizeMiB() << 20) : null;
+            MetricsRegistry metrics = createMetrics(options, resultCache);
 
-                CapitalGainsTaxCalculatorHandler capitalGainsTaxesCalculatorHandler = new CapitalGainsTaxCalculatorHandlerImpl();
-                List<Tax> capitalGainsTaxes = capitalGainsTaxesCalculatorHandler.calculateTaxes(operations);
-
-                // Print taxes as JSON array
-                printOutput(capitalGainsTaxes, mapper);
+            if (options.isDaemon()) {
+                startDaemon(options, mapper);
+            } else if (options.getServerPort() > 0) {
+                serve(options, mapper);
+            } else if (options.isBinaryFormat()) {
+                processBinary(options, metrics);
+            } else if (options.isPipeline()) {
+                processPipeline(options, mapper, metrics);
+            } else if (options.isStreaming()) {
+                processStreaming(options, mapper, metrics);
+            } else if (options.getThreads() > 1) {
+                processParallel(options, mapper, metrics);
+            } else if (options.getInput() != null) {
+                processMappedFile(options, mapper, metrics, resultCache);
+            } else {
+                processLines(options, mapper, metrics, resultCache);
             }
         } catch (Exception e) {
             System.err.println("Error processing input: " + e.getMessage());
             e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static MetricsRegistry createMetrics(CommandLineOptions options, LineResultCache resultCache) throws JMException {
+        if (!options.isMetricsEnabled()) {
+            return MetricsRegistry.DISABLED;
+        }
+        MetricsRegistry metrics = new MetricsRegistry(true);
+        metrics.setResultCache(resultCache);
+        metrics.registerMBeans();
+        if (options.isMetricsSummary()) {
+            metrics.printSummaryAtShutdown(System.err);
+        }
+        return metrics;
+    }
+
+    // The server threads keep the JVM running after main returns
+    private static void serve(CommandLineOptions options, ObjectMapper mapper) throws IOException {
+        CapitalGainsHttpServer server = new CapitalGainsHttpServer(options.getArithmeticEngine().createHandler(), mapper,
+                new InetSocketAddress(options.getServerPort()));
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "capital-gains-server-shutdown"));
+        System.err.println("Listening on " + server.getAddress() + CapitalGainsHttpServer.PATH
+                + (server.usesVirtualThreads() ? " with virtual threads" : " with platform threads"));
+    }
+
+    // The accepting thread keeps the JVM running after main returns
+    private static void startDaemon(CommandLineOptions options, ObjectMapper mapper) throws IOException {
+        CapitalGainsDaemon daemon = new CapitalGainsDaemon(mapper, socketPath(options));
+        daemon.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                daemon.close();
+            } catch (IOException e) {
+                System.err.println("Error stopping the daemon: " + e.getMessage());
+            }
+        }, "capital-gains-daemon-shutdown"));
+        System.err.println("Listening on " + daemon.getSocketPath());
+    }
+
+    private static Path socketPath(CommandLineOptions options) {
+        return options.getSocketPath() != null ? options.getSocketPath() : DaemonClient.defaultSocketPath();
+    }
+
+    private static void processLines(CommandLineOptions options, ObjectMapper mapper, MetricsRegistry metrics,
+                                     LineResultCache resultCache) throws IOException {
+        BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(System.in));
+        CapitalGainsTaxCalculatorHandler capitalGainsTaxesCalculatorHandler = options.getArithmeticEngine().createHandler();
+
+        String line;
+        while ((line = bufferedReader.readLine()) != null && !line.isEmpty()) {
+            LineResultCache.Key cacheKey = null;
+            if (resultCache != null) {
+                // Looked up before Jackson runs, a hit is answered without parsing or calculating
+                cacheKey = resultCache.key(line.getBytes(StandardCharsets.UTF_8));
+                LineResultCache.Result cached = resultCache.get(cacheKey);
+                if (cached != null) {
+                    writeCachedLine(cached, System.out, metrics);
+                    continue;
+                }
+            }
+
+            long time = metrics.startTime();
+            LineParseEvent parseEvent = FlightRecording.isActive() ? new LineParseEvent() : null;
+            if (parseEvent != null) {
+                parseEvent.begin();
+            }
+            // Parse each line as an array of Operations
+            List<Operation> operations = mapper.readValue(line, new TypeReference<>() {});
+            if (parseEvent != null) {
+                parseEvent.finish(OperationLineDecoder.JACKSON_PARSER, line.length(), operations.size());
+            }
+            time = metrics.record(Stage.PARSE, time);
+
+            List<Tax> capitalGainsTaxes = capitalGainsTaxesCalculatorHandler.calculateTaxes(operations);
+            time = metrics.record(Stage.CALCULATE, time);
+
+            // Print taxes as JSON array
+            if (cacheKey == null) {
+                printOutput(capitalGainsTaxes, mapper);
+            } else {
+                OutputWriteEvent event = FlightRecording.isActive() ? new OutputWriteEvent() : null;
+                if (event != null) {
+                    event.begin();
+                }
+                byte[] output = withLineSeparator(mapper.writeValueAsBytes(capitalGainsTaxes));
+                resultCache.put(cacheKey, output, capitalGainsTaxes.size());
+                System.out.write(output, 0, output.length);
+                if (event != null) {
+                    event.finish(capitalGainsTaxes.size());
+                }
+            }
+            metrics.record(Stage.WRITE, time);
+            metrics.lineProcessed(operations.size());
+        }
+    }
+
+    private static void processMappedFile(CommandLineOptions options, ObjectMapper mapper, MetricsRegistry metrics,
+                                          LineResultCache resultCache) throws IOException {
+        CapitalGainsTaxCalculatorHandler capitalGainsTaxesCalculatorHandler = options.getArithmeticEngine().createHandler();
+        OperationLineDecoder decoder = new OperationLineDecoder(mapper, options.isSchemaParser());
+        OperationBatch batch = new OperationBatch();
+        double[] taxes = new double[0];
+        OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER_SIZE);
+        // With a cache, each output line is first written here so its bytes can be kept
+        ByteArrayOutputStream lineOutput = new ByteArrayOutputStream();
+
+        try (MappedLineReader reader = new MappedLineReader(options.getInput());
+             TaxStreamWriter writer = new TaxStreamWriter(mapper.getFactory(), outputStream);
+             TaxStreamWriter lineWriter = new TaxStreamWriter(mapper.getFactory(), lineOutput)) {
+            ByteBuffer line;
+            while ((line = reader.nextLine()) != null && line.hasRemaining()) {
+                LineResultCache.Key cacheKey = null;
+                if (resultCache != null) {
+                    cacheKey = resultCache.key(line);
+                    LineResultCache.Result cached = resultCache.get(cacheKey);
+                    if (cached != null) {
+                        writeCachedLine(cached, outputStream, metrics);
+                        continue;
+                    }
+                }
+
+                long time = metrics.startTime();
+                // The mapped bytes are parsed directly, no String is built for the line
+                decoder.decode(line, batch);
+                time = metrics.record(Stage.PARSE, time);
+
+                if (taxes.length < batch.size()) {
+                    taxes = new double[batch.getType().length];
+                }
+                capitalGainsTaxesCalculatorHandler.calculateTaxes(batch, taxes);
+                time = metrics.record(Stage.CALCULATE, time);
+
+                if (cacheKey == null) {
+                    writer.writeLine(taxes, batch.size());
+                } else {
+                    lineWriter.writeLine(taxes, batch.size());
+                    byte[] output = lineOutput.toByteArray();
+                    lineOutput.reset();
+                    resultCache.put(cacheKey, output, batch.size());
+                    outputStream.write(output);
+                }
+                metrics.record(Stage.WRITE, time);
+                metrics.lineProcessed(batch.size());
+            }
         }
     }
 
+    private static void processPipeline(CommandLineOptions options, ObjectMapper mapper, MetricsRegistry metrics) throws IOException {
+        PipelineLineProcessor processor = new PipelineLineProcessor(options.getArithmeticEngine().createHandler(), mapper,
+                options.getParsers(), options.isSchemaParser(), options.getWaitStrategy(), metrics);
+        // A file channel on stdin too, so every read fills as much of the read-ahead buffer as is available
+        ReadableByteChannel inputChannel = options.getInput() != null
+                ? FileChannel.open(options.getInput(), StandardOpenOption.READ)
+                : new FileInputStream(FileDescriptor.in).getChannel();
+        try (inputChannel;
+             OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER_SIZE)) {
+            processor.process(inputChannel, outputStream);
+        }
+    }
+
+    private static void processBinary(CommandLineOptions options, MetricsRegistry metrics) throws IOException {
+        CapitalGainsTaxCalculatorHandler capitalGainsTaxesCalculatorHandler = options.getArithmeticEngine().createHandler();
+        ReadableByteChannel inputChannel = options.getInput() != null
+                ? FileChannel.open(options.getInput(), StandardOpenOption.READ)
+                : Channels.newChannel(System.in);
+        OperationBatch batch = new OperationBatch();
+        double[] taxes = new double[0];
+
+        try (BinaryOperationReader reader = new BinaryOperationReader(inputChannel);
+             BinaryTaxWriter writer = new BinaryTaxWriter(new FileOutputStream(FileDescriptor.out))) {
+            long time = metrics.startTime();
+            while (reader.next(batch)) {
+                time = metrics.record(Stage.PARSE, time);
+
+                if (taxes.length < batch.size()) {
+                    taxes = new double[batch.getType().length];
+                }
+                capitalGainsTaxesCalculatorHandler.calculateTaxes(batch, taxes);
+                time = metrics.record(Stage.CALCULATE, time);
+
+                writer.writeLine(taxes, batch.size());
+                time = metrics.record(Stage.WRITE, time);
+                metrics.lineProcessed(batch.size());
+            }
+        }
+    }
+
+    private static void processParallel(CommandLineOptions options, ObjectMapper mapper, MetricsRegistry metrics) throws IOException {
+        CapitalGainsTaxCalculatorHandler capitalGainsTaxesCalculatorHandler = options.getArithmeticEngine().createHandler();
+        PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER_SIZE), false);
+
+        try (ParallelLineProcessor processor = new ParallelLineProcessor(capitalGainsTaxesCalculatorHandler, mapper, options.getThreads(), options.isSchemaParser(), metrics)) {
+            if (options.getInput() != null) {
+                try (MappedLineReader reader = new MappedLineReader(options.getInput())) {
+                    processor.process(reader, out);
+                }
+            } else {
+                processor.process(new BufferedReader(new InputStreamReader(System.in)), out);
+            }
+        }
+    }
+
+    // Parsing and calculation interleave per operation here, so only counts and the per-line flush are measured
+    private static void processStreaming(CommandLineOptions options, ObjectMapper mapper, MetricsRegistry metrics) throws IOException {
+        CapitalGainsTaxCalculatorHandler capitalGainsTaxesCalculatorHandler = options.getArithmeticEngine().createHandler();
+        InputStream inputStream = options.getInput() != null ? Files.newInputStream(options.getInput()) : System.in;
+        OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER_SIZE);
+
+        try (OperationStreamReader reader = new OperationStreamReader(mapper.getFactory(), inputStream);
+             TaxStreamWriter writer = new TaxStreamWriter(mapper.getFactory(), outputStream)) {
+            while (reader.nextLine()) {
+                // Each line is an independent simulation
+                CapitalGainsContext context = new CapitalGainsContext();
+                writer.startLine();
+
+                Operation operation;
+                int operations = 0;
+                while ((operation = reader.nextOperation()) != null) {
+                    writer.write(capitalGainsTaxesCalculatorHandler.calculateTax(operation, context));
+                    operations++;
+                }
+
+                long time = metrics.startTime();
+                writer.endLine();
+                metrics.record(Stage.WRITE, time);
+                metrics.lineProcessed(operations);
+            }
+        }
+    }
+
+    // A hit skips parsing and calculation, but is written, traced and counted like any other line
+    private static void writeCachedLine(LineResultCache.Result cached, OutputStream outputStream, MetricsRegistry metrics) throws IOException {
+        long time = metrics.startTime();
+        OutputWriteEvent event = FlightRecording.isActive() ? new OutputWriteEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        outputStream.write(cached.getOutput());
+        if (event != null) {
+            event.finish(cached.getTaxCount());
+        }
+        metrics.record(Stage.WRITE, time);
+        metrics.lineProcessed(cached.getTaxCount());
+    }
+
+    private static byte[] withLineSeparator(byte[] json) {
+        byte[] line = Arrays.copyOf(json, json.length + LINE_SEPARATOR.length);
+        System.arraycopy(LINE_SEPARATOR, 0, line, json.length, LINE_SEPARATOR.length);
+        return line;
+    }
+
     private static void printOutput(List<Tax> taxes, ObjectMapper mapper) {
         try {
+            OutputWriteEvent event = FlightRecording.isActive() ? new OutputWriteEvent() : null;
+            if (event != null) {
+                event.begin();
+            }
             String jsonTaxes = mapper.writeValueAsString(taxes);
             System.out.println(jsonTaxes);
+            if (event != null) {
+                event.finish(taxes.size());
+            }
         } catch (JsonProcessingException e) {
             System.err.println("Error converting taxes to JSON: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
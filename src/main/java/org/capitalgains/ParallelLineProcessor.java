@@ -0,0 +1,197 @@
+package org.capitalgains;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandler;
+import org.capitalgains.io.MappedLineReader;
+import org.capitalgains.io.OperationLineDecoder;
+import org.capitalgains.io.TaxStreamWriter;
+import org.capitalgains.jfr.FlightRecording;
+import org.capitalgains.jfr.LineParseEvent;
+import org.capitalgains.jfr.OutputWriteEvent;
+import org.capitalgains.metrics.MetricsRegistry;
+import org.capitalgains.metrics.Stage;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
+import org.capitalgains.model.Tax;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Calculates independent input lines concurrently with a shared handler and
+ * prints the results in input order. At most {@code maxInFlightLines} lines are
+ * held in memory at any time; reading blocks until the oldest one is printed.
+ */
+public class ParallelLineProcessor implements AutoCloseable {
+
+    private static final int IN_FLIGHT_LINES_PER_THREAD = 4;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private final CapitalGainsTaxCalculatorHandler handler;
+    private final ObjectReader operationsReader;
+    private final ObjectWriter taxesWriter;
+    private final JsonFactory jsonFactory;
+    private final ThreadLocal<OperationLineDecoder> decoders;
+    private final ExecutorService executor;
+    private final int maxInFlightLines;
+    private final MetricsRegistry metrics;
+
+    public ParallelLineProcessor(CapitalGainsTaxCalculatorHandler handler, ObjectMapper mapper, int threads) {
+        this(handler, mapper, threads, true);
+    }
+
+    public ParallelLineProcessor(CapitalGainsTaxCalculatorHandler handler, ObjectMapper mapper, int threads, boolean schemaParserEnabled) {
+        this(handler, mapper, threads, schemaParserEnabled, MetricsRegistry.DISABLED);
+    }
+
+    public ParallelLineProcessor(CapitalGainsTaxCalculatorHandler handler, ObjectMapper mapper, int threads, boolean schemaParserEnabled, MetricsRegistry metrics) {
+        this.handler = handler;
+        this.metrics = metrics;
+        this.jsonFactory = mapper.getFactory();
+        this.decoders = ThreadLocal.withInitial(() -> new OperationLineDecoder(mapper, schemaParserEnabled));
+        this.operationsReader = mapper.readerFor(new TypeReference<List<Operation>>() {});
+        this.taxesWriter = mapper.writerFor(new TypeReference<List<Tax>>() {});
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "capital-gains-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxInFlightLines = threads * IN_FLIGHT_LINES_PER_THREAD;
+    }
+
+    public void process(BufferedReader reader, PrintStream out) throws IOException {
+        process(() -> {
+            String line = reader.readLine();
+            if (line == null || line.isEmpty()) {
+                return null;
+            }
+            return () -> {
+                long time = metrics.startTime();
+                LineParseEvent parseEvent = FlightRecording.isActive() ? new LineParseEvent() : null;
+                if (parseEvent != null) {
+                    parseEvent.begin();
+                }
+                List<Operation> operations = operationsReader.readValue(line);
+                if (parseEvent != null) {
+                    parseEvent.finish(OperationLineDecoder.JACKSON_PARSER, line.length(), operations.size());
+                }
+                metrics.record(Stage.PARSE, time);
+                return calculateOperations(operations);
+            };
+        }, out);
+    }
+
+    public void process(MappedLineReader reader, PrintStream out) throws IOException {
+        process(() -> {
+            ByteBuffer line = reader.nextLine();
+            if (line == null || !line.hasRemaining()) {
+                return null;
+            }
+            return () -> calculateLine(line);
+        }, out);
+    }
+
+    private void process(LineTaskSource source, PrintStream out) throws IOException {
+        Deque<Future<byte[]>> inFlight = new ArrayDeque<>(maxInFlightLines);
+        try {
+            Callable<byte[]> task;
+            while ((task = source.next()) != null) {
+                if (inFlight.size() == maxInFlightLines) {
+                    print(await(inFlight.poll()), out);
+                }
+                inFlight.add(executor.submit(task));
+            }
+
+            while (!inFlight.isEmpty()) {
+                print(await(inFlight.poll()), out);
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+            out.flush();
+        }
+    }
+
+    // Write times cover serializing into the line buffer, printing happens later in input order
+    private byte[] calculateOperations(List<Operation> operations) throws IOException {
+        long time = metrics.startTime();
+        List<Tax> taxes = handler.calculateTaxes(operations);
+        time = metrics.record(Stage.CALCULATE, time);
+
+        OutputWriteEvent writeEvent = FlightRecording.isActive() ? new OutputWriteEvent() : null;
+        if (writeEvent != null) {
+            writeEvent.begin();
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        taxesWriter.writeValue(outputStream, taxes);
+        outputStream.write(LINE_SEPARATOR);
+        if (writeEvent != null) {
+            writeEvent.finish(taxes.size());
+        }
+        metrics.record(Stage.WRITE, time);
+        metrics.lineProcessed(operations.size());
+        return outputStream.toByteArray();
+    }
+
+    private byte[] calculateLine(ByteBuffer line) throws IOException {
+        long time = metrics.startTime();
+        OperationBatch batch = new OperationBatch();
+        decoders.get().decode(line, batch);
+        time = metrics.record(Stage.PARSE, time);
+
+        double[] taxes = new double[batch.size()];
+        handler.calculateTaxes(batch, taxes);
+        time = metrics.record(Stage.CALCULATE, time);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (TaxStreamWriter writer = new TaxStreamWriter(jsonFactory, outputStream)) {
+            writer.writeLine(taxes, taxes.length);
+        }
+        metrics.record(Stage.WRITE, time);
+        metrics.lineProcessed(batch.size());
+        return outputStream.toByteArray();
+    }
+
+    private static void print(byte[] line, PrintStream out) {
+        out.write(line, 0, line.length);
+    }
+
+    private byte[] await(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for line result", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private interface LineTaskSource {
+        // Returns null once the input is exhausted
+        Callable<byte[]> next() throws IOException;
+    }
+}
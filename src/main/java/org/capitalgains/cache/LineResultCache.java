@@ -0,0 +1,164 @@
+package org.capitalgains.cache;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the serialized output of recently seen input lines, together with
+ * the number of taxes it holds, so a line that was already answered is neither
+ * parsed nor calculated again and is still counted like any other line. Lines are
+ * keyed by the SHA-256 digest of their raw bytes, which makes a collision
+ * between two different lines practically impossible without keeping the
+ * lines themselves. The cache holds at most {@code maxSizeBytes} of digests
+ * and outputs, estimated with a fixed per-entry overhead, and evicts the least
+ * recently used lines first.
+ * <p>
+ * Results only depend on the line, so one cache must only ever be used with
+ * one handler configuration.
+ */
+public class LineResultCache implements LineResultCacheMBean {
+
+    // Map entry, key and result objects and the two array headers
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final long maxSizeBytes;
+    private final MessageDigest digest;
+    private final LinkedHashMap<Key, Result> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public LineResultCache(long maxSizeBytes) {
+        if (maxSizeBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSizeBytes);
+        }
+        this.maxSizeBytes = maxSizeBytes;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Hashes the remaining bytes of the line, its position is left unchanged
+    public synchronized Key key(ByteBuffer line) {
+        digest.update(line.duplicate());
+        return new Key(digest.digest());
+    }
+
+    public Key key(byte[] line) {
+        return key(ByteBuffer.wrap(line));
+    }
+
+    // Null on a miss; the caller then calculates the output and puts it
+    public synchronized Result get(Key key) {
+        Result result = entries.get(key);
+        if (result != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return result;
+    }
+
+    public synchronized void put(Key key, byte[] output, int taxCount) {
+        Result result = new Result(output, taxCount);
+        long entrySize = entrySize(key, result);
+        if (entrySize > maxSizeBytes) {
+            return;
+        }
+        Result previous = entries.put(key, result);
+        if (previous != null) {
+            sizeBytes -= entrySize(key, previous);
+        }
+        sizeBytes += entrySize;
+        Iterator<Map.Entry<Key, Result>> eldest = entries.entrySet().iterator();
+        while (sizeBytes > maxSizeBytes) {
+            Map.Entry<Key, Result> entry = eldest.next();
+            sizeBytes -= entrySize(entry.getKey(), entry.getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private static long entrySize(Key key, Result result) {
+        return ENTRY_OVERHEAD + key.digest.length + result.output.length;
+    }
+
+    @Override
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    @Override
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized int getEntries() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    @Override
+    public long getMaxSizeBytes() {
+        return maxSizeBytes;
+    }
+
+    public static final class Result {
+        private final byte[] output;
+        private final int taxCount;
+
+        private Result(byte[] output, int taxCount) {
+            this.output = output;
+            this.taxCount = taxCount;
+        }
+
+        // The output line including its line separator
+        public byte[] getOutput() {
+            return output;
+        }
+
+        public int getTaxCount() {
+            return taxCount;
+        }
+    }
+
+    public static final class Key {
+        private final byte[] digest;
+        private final int hash;
+
+        private Key(byte[] digest) {
+            this.digest = digest;
+            // The digest bytes are already uniformly distributed
+            this.hash = ByteBuffer.wrap(digest).getInt();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(digest, ((Key) other).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
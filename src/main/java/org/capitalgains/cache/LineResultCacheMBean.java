@@ -0,0 +1,15 @@
+package org.capitalgains.cache;
+
+public interface LineResultCacheMBean {
+    long getHits();
+
+    long getMisses();
+
+    long getEvictions();
+
+    int getEntries();
+
+    long getSizeBytes();
+
+    long getMaxSizeBytes();
+}
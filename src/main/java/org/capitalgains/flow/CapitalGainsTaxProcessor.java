@@ -0,0 +1,170 @@
+package org.capitalgains.flow;
+
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandler;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
+import org.capitalgains.model.CapitalGainsContext;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.Tax;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Turns a stream of operations for one portfolio into its stream of taxes.
+ * Each operation yields exactly one tax, so the processor holds no buffer:
+ * demand from the single downstream subscriber is passed straight upstream.
+ * Demand signalled before the upstream subscription arrives is kept and
+ * forwarded once it does.
+ */
+public class CapitalGainsTaxProcessor implements Flow.Processor<Operation, Tax> {
+
+    private final CapitalGainsTaxCalculatorHandler handler;
+    private final CapitalGainsContext context = new CapitalGainsContext();
+
+    // Guarded by this
+    private Flow.Subscription upstream;
+    private Flow.Subscriber<? super Tax> downstream;
+    private long pendingDemand;
+    private boolean cancelled;
+    private boolean terminated;
+    private Throwable pendingError;
+    private boolean pendingComplete;
+
+    public CapitalGainsTaxProcessor() {
+        this(new CapitalGainsTaxCalculatorHandlerImpl());
+    }
+
+    public CapitalGainsTaxProcessor(CapitalGainsTaxCalculatorHandler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Tax> subscriber) {
+        synchronized (this) {
+            if (downstream != null) {
+                subscriber.onSubscribe(new DownstreamSubscription());
+                subscriber.onError(new IllegalStateException("Only one subscriber is supported"));
+                return;
+            }
+            downstream = subscriber;
+        }
+        subscriber.onSubscribe(new DownstreamSubscription());
+
+        // Upstream may have terminated before anyone subscribed
+        Throwable error;
+        boolean complete;
+        synchronized (this) {
+            error = pendingError;
+            complete = pendingComplete;
+            pendingError = null;
+            pendingComplete = false;
+        }
+        if (error != null) {
+            subscriber.onError(error);
+        } else if (complete) {
+            subscriber.onComplete();
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        long demand;
+        boolean cancel;
+        synchronized (this) {
+            if (upstream != null) {
+                cancel = true;
+                demand = 0;
+            } else {
+                upstream = subscription;
+                demand = pendingDemand;
+                pendingDemand = 0;
+                cancel = cancelled;
+            }
+        }
+        if (cancel) {
+            subscription.cancel();
+        } else if (demand > 0) {
+            subscription.request(demand);
+        }
+    }
+
+    @Override
+    public void onNext(Operation operation) {
+        Tax tax;
+        try {
+            tax = handler.calculateTax(operation, context);
+        } catch (RuntimeException e) {
+            upstream.cancel();
+            onError(e);
+            return;
+        }
+        downstream.onNext(tax);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        Flow.Subscriber<? super Tax> subscriber;
+        synchronized (this) {
+            if (terminated) {
+                return;
+            }
+            terminated = true;
+            subscriber = downstream;
+            if (subscriber == null) {
+                pendingError = throwable;
+            }
+        }
+        if (subscriber != null) {
+            subscriber.onError(throwable);
+        }
+    }
+
+    @Override
+    public void onComplete() {
+        Flow.Subscriber<? super Tax> subscriber;
+        synchronized (this) {
+            if (terminated) {
+                return;
+            }
+            terminated = true;
+            subscriber = downstream;
+            if (subscriber == null) {
+                pendingComplete = true;
+            }
+        }
+        if (subscriber != null) {
+            subscriber.onComplete();
+        }
+    }
+
+    private final class DownstreamSubscription implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                onError(new IllegalArgumentException("Demand must be positive: " + n));
+                return;
+            }
+            Flow.Subscription subscription;
+            synchronized (CapitalGainsTaxProcessor.this) {
+                subscription = upstream;
+                if (subscription == null) {
+                    pendingDemand = pendingDemand + n < 0 ? Long.MAX_VALUE : pendingDemand + n;
+                    return;
+                }
+            }
+            subscription.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            Flow.Subscription subscription;
+            synchronized (CapitalGainsTaxProcessor.this) {
+                cancelled = true;
+                subscription = upstream;
+            }
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.capitalgains.flow;
+
+import org.capitalgains.model.Operation;
+
+import java.util.Iterator;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes operations pulled from an {@link Iterable}, never more than the
+ * subscriber requested. Each subscriber gets its own iterator, so a lazy
+ * source is only read as fast as its consumer asks. Operations are emitted on
+ * the thread that calls {@link Flow.Subscription#request}.
+ */
+public class OperationPublisher implements Flow.Publisher<Operation> {
+
+    private final Iterable<Operation> operations;
+
+    public OperationPublisher(Iterable<Operation> operations) {
+        this.operations = operations;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Operation> subscriber) {
+        subscriber.onSubscribe(new IteratorSubscription(subscriber, operations.iterator()));
+    }
+
+    private static final class IteratorSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super Operation> subscriber;
+        private final Iterator<Operation> iterator;
+        // Outstanding demand; only the thread that raised it from zero emits, so signals never overlap
+        private final AtomicLong requested = new AtomicLong();
+        private volatile boolean cancelled;
+
+        IteratorSubscription(Flow.Subscriber<? super Operation> subscriber, Iterator<Operation> iterator) {
+            this.subscriber = subscriber;
+            this.iterator = iterator;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Demand must be positive: " + n));
+                return;
+            }
+            long previous = requested.getAndAccumulate(n, IteratorSubscription::addCapped);
+            if (previous == 0) {
+                drain(n);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        private void drain(long demand) {
+            while (true) {
+                long emitted = 0;
+                while (true) {
+                    if (cancelled) {
+                        return;
+                    }
+                    // End of input is checked even when demand runs out, so the last operation is followed by onComplete
+                    boolean hasNext;
+                    Operation operation = null;
+                    try {
+                        hasNext = iterator.hasNext();
+                        if (hasNext && emitted < demand) {
+                            operation = iterator.next();
+                        }
+                    } catch (RuntimeException e) {
+                        cancelled = true;
+                        subscriber.onError(e);
+                        return;
+                    }
+                    if (!hasNext) {
+                        cancelled = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    if (emitted == demand) {
+                        break;
+                    }
+                    subscriber.onNext(operation);
+                    emitted++;
+                }
+                demand = demand == Long.MAX_VALUE ? Long.MAX_VALUE : requested.addAndGet(-emitted);
+                if (demand == 0) {
+                    return;
+                }
+            }
+        }
+
+        private static long addCapped(long current, long n) {
+            long sum = current + n;
+            return sum < 0 ? Long.MAX_VALUE : sum;
+        }
+    }
+}
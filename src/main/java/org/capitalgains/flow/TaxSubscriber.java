@@ -0,0 +1,73 @@
+package org.capitalgains.flow;
+
+import org.capitalgains.model.Tax;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * Hands taxes to a consumer while keeping at most {@code batchSize} of them
+ * requested at a time, so a slow consumer throttles everything upstream.
+ * {@link #getCompletion()} completes when the stream ends, exceptionally if it
+ * failed or the consumer threw.
+ */
+public class TaxSubscriber implements Flow.Subscriber<Tax> {
+
+    private final Consumer<? super Tax> consumer;
+    private final int batchSize;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    private Flow.Subscription subscription;
+    private int receivedInBatch;
+
+    public TaxSubscriber(Consumer<? super Tax> consumer, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.consumer = consumer;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(batchSize);
+    }
+
+    @Override
+    public void onNext(Tax tax) {
+        if (completion.isDone()) {
+            return;
+        }
+        try {
+            consumer.accept(tax);
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            completion.completeExceptionally(e);
+            return;
+        }
+        if (++receivedInBatch == batchSize) {
+            receivedInBatch = 0;
+            subscription.request(batchSize);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        completion.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        completion.complete(null);
+    }
+
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+}
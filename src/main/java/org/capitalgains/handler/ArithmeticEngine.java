@@ -0,0 +1,37 @@
+package org.capitalgains.handler;
+
+public enum ArithmeticEngine {
+    DOUBLE("double") {
+        @Override
+        public CapitalGainsTaxCalculatorHandler createHandler() {
+            return new CapitalGainsTaxCalculatorHandlerImpl();
+        }
+    },
+    FIXED_POINT("fixed") {
+        @Override
+        public CapitalGainsTaxCalculatorHandler createHandler() {
+            return new FixedPointCapitalGainsTaxCalculatorHandlerImpl();
+        }
+    };
+
+    private final String optionName;
+
+    ArithmeticEngine(String optionName) {
+        this.optionName = optionName;
+    }
+
+    public abstract CapitalGainsTaxCalculatorHandler createHandler();
+
+    public String getOptionName() {
+        return optionName;
+    }
+
+    public static ArithmeticEngine fromOptionName(String optionName) {
+        for (ArithmeticEngine engine : values()) {
+            if (engine.optionName.equals(optionName)) {
+                return engine;
+            }
+        }
+        throw new IllegalArgumentException("Unknown arithmetic engine: " + optionName);
+    }
+}
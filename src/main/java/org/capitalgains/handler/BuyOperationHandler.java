@@ -6,6 +6,6 @@ import org.capitalgains.model.Tax;
 
 import java.util.List;
 
-public interface BuyOperationHandler {
+public interface BuyOperationHandler extends OperationTypeHandler {
     Tax handle(Operation operation, CapitalGainsContext context);
 }
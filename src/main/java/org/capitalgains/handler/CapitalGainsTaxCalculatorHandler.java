@@ -1,10 +1,19 @@
 package org.capitalgains.handler;
 
+import org.capitalgains.model.CapitalGainsContext;
 import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
 import org.capitalgains.model.Tax;
 
 import java.util.List;
 
 public interface CapitalGainsTaxCalculatorHandler {
     List<Tax> calculateTaxes(List<Operation> operations);
+
+    // Throws IllegalStateException if a registered handler returns null
+    Tax calculateTax(Operation operation, CapitalGainsContext context);
+
+    // Writes the tax of the i-th operation of the batch into taxes[i]. Buys and sells follow the built-in rules with the
+    // handler's calculators, not any BuyOperationHandler or SellOperationHandler it was given; registered types are dispatched
+    void calculateTaxes(OperationBatch batch, double[] taxes);
 }
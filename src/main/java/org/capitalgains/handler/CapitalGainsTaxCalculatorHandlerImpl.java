@@ -1,9 +1,10 @@
 package org.capitalgains.handler;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.capitalgains.jfr.FlightRecording;
+import org.capitalgains.jfr.TaxCalculationEvent;
 import org.capitalgains.model.CapitalGainsContext;
 import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
 import org.capitalgains.model.Tax;
 import org.capitalgains.service.MediumPriceCalculator;
 import org.capitalgains.service.MediumPriceCalculatorImpl;
@@ -17,30 +18,43 @@ public class CapitalGainsTaxCalculatorHandlerImpl implements CapitalGainsTaxCalc
 
     private final MediumPriceCalculator mediumPriceCalculator;
     private final TaxCalculator taxCalculator;
-    private final ObjectMapper mapper;
     private final BuyOperationHandler buyOperationHandler;
     private final SellOperationHandler sellOperationHandler;
+    // Indexed by OperationType code, only consulted for types other than buy and sell
+    private final OperationTypeHandler[] registeredHandlers;
 
     public CapitalGainsTaxCalculatorHandlerImpl() {
+        this(new OperationTypeRegistry());
+    }
+
+    public CapitalGainsTaxCalculatorHandlerImpl(OperationTypeRegistry registry) {
         this.mediumPriceCalculator = new MediumPriceCalculatorImpl();
         this.taxCalculator = new TaxCalculatorImpl();
-        this.mapper = new ObjectMapper();
         this.buyOperationHandler = new BuyOperationHandlerImpl();
         this.sellOperationHandler = new SellOperationHandlerImpl();
+        this.registeredHandlers = registry.toArray();
     }
 
     public CapitalGainsTaxCalculatorHandlerImpl(MediumPriceCalculator mediumPriceCalculator, TaxCalculator taxCalculator, BuyOperationHandler buyOperationHandler, SellOperationHandler sellOperationHandler) {
+        this(mediumPriceCalculator, taxCalculator, buyOperationHandler, sellOperationHandler, new OperationTypeRegistry());
+    }
+
+    // The buy and sell handlers serve the operation-based methods; the batch kernel applies the built-in rules with the calculators
+    public CapitalGainsTaxCalculatorHandlerImpl(MediumPriceCalculator mediumPriceCalculator, TaxCalculator taxCalculator, BuyOperationHandler buyOperationHandler, SellOperationHandler sellOperationHandler, OperationTypeRegistry registry) {
         this.mediumPriceCalculator = mediumPriceCalculator;
         this.taxCalculator = taxCalculator;
-        this.mapper = new ObjectMapper();
         this.buyOperationHandler = buyOperationHandler;
         this.sellOperationHandler = sellOperationHandler;
+        this.registeredHandlers = registry.toArray();
     }
 
     @Override
     public List<Tax> calculateTaxes(List<Operation> operations) {
+        TaxCalculationEvent event = startCalculationEvent();
         CapitalGainsContext context = new CapitalGainsContext();
         List<Tax> taxes = new ArrayList<>();
+        int sellCount = 0;
+        int lossCarryResets = 0;
 
         // Process each operation
         for (Operation operation : operations) {
@@ -50,17 +64,134 @@ public class CapitalGainsTaxCalculatorHandlerImpl implements CapitalGainsTaxCalc
                     this.handleBuyOperation(operation, context, taxes);
                     break;
                 case SELL:
+                    double lossValue = context.getLossValue();
                     this.handleSellOperation(operation, context, taxes);
+                    sellCount++;
+                    if (lossValue > 0 && context.getLossValue() == 0) {
+                        lossCarryResets++;
+                    }
                     break;
                 default:
-                    // Handle unknown operation type
+                    taxes.add(this.handleRegisteredOperation(operation, context));
                     break;
             }
         }
 
+        if (event != null) {
+            event.finish(operations.size(), sellCount, lossCarryResets);
+        }
         return taxes;
     }
 
+    @Override
+    public Tax calculateTax(Operation operation, CapitalGainsContext context) {
+        switch (operation.getOperationType()) {
+            case BUY:
+                return this.buyOperationHandler.handle(operation, context);
+            case SELL:
+                return this.sellOperationHandler.handle(operation, context);
+            default:
+                return this.handleRegisteredOperation(operation, context);
+        }
+    }
+
+    @Override
+    public void calculateTaxes(OperationBatch batch, double[] taxes) {
+        byte[] types = batch.getType();
+        double[] unitCosts = batch.getUnitCost();
+        int[] quantities = batch.getQuantity();
+        int size = batch.size();
+        if (taxes.length < size) {
+            throw new IllegalArgumentException("Taxes array holds " + taxes.length + " entries but the batch has " + size + " operations");
+        }
+
+        // Context state is kept in locals so the loop never allocates, unless a registered type needs a context
+        double mediumPrice = 0;
+        int stocksQuantity = 0;
+        double lossValue = 0;
+        CapitalGainsContext context = null;
+        Operation operation = null;
+        TaxCalculationEvent event = startCalculationEvent();
+        int sellCount = 0;
+        int lossCarryResets = 0;
+
+        for (int i = 0; i < size; i++) {
+            double unitCost = unitCosts[i];
+            int quantity = quantities[i];
+
+            switch (types[i]) {
+                case OperationBatch.BUY:
+                    mediumPrice = this.mediumPriceCalculator.calculate(unitCost, mediumPrice, stocksQuantity, quantity);
+                    stocksQuantity += quantity;
+                    taxes[i] = 0;
+                    break;
+                case OperationBatch.SELL:
+                    taxes[i] = this.taxCalculator.calculateTax(unitCost, mediumPrice, lossValue, quantity);
+                    stocksQuantity -= quantity;
+                    sellCount++;
+                    double previousLossValue = lossValue;
+                    lossValue = SellOperationHandlerImpl.carryLoss(unitCost, mediumPrice, lossValue, quantity);
+                    if (previousLossValue > 0 && lossValue == 0) {
+                        lossCarryResets++;
+                    }
+                    break;
+                default:
+                    if (context == null) {
+                        context = new CapitalGainsContext();
+                        operation = new Operation();
+                    }
+                    context.setMediumPriceValue(mediumPrice);
+                    context.setStocksQuantity(stocksQuantity);
+                    context.setLossValue(lossValue);
+                    taxes[i] = this.handleRegisteredOperation(types[i], unitCost, quantity, operation, context);
+                    mediumPrice = context.getMediumPriceValue();
+                    stocksQuantity = context.getStocksQuantity();
+                    lossValue = context.getLossValue();
+                    break;
+            }
+        }
+        if (event != null) {
+            event.finish(size, sellCount, lossCarryResets);
+        }
+    }
+
+    // Runs the registered handler of a type code on a reusable operation, for batch kernels
+    protected double handleRegisteredOperation(byte typeCode, double unitCost, int quantity, Operation operation, CapitalGainsContext context) {
+        operation.setOperationType(OperationBatch.operationType(typeCode));
+        operation.setUnitCost(unitCost);
+        operation.setQuantity(quantity);
+        return this.handleRegisteredOperation(operation, context).getTax();
+    }
+
+    // Every operation has exactly one tax entry, which the batch kernels rely on to index their output
+    private Tax handleRegisteredOperation(Operation operation, CapitalGainsContext context) {
+        Tax tax = this.registeredHandler(operation.getOperationType().getCode()).handle(operation, context);
+        if (tax == null) {
+            throw new IllegalStateException("Handler for " + operation.getOperationType() + " returned no tax");
+        }
+        return tax;
+    }
+
+    private OperationTypeHandler registeredHandler(int typeCode) {
+        OperationTypeHandler handler = typeCode >= 0 && typeCode < this.registeredHandlers.length
+                ? this.registeredHandlers[typeCode]
+                : null;
+        if (handler == null) {
+            throw new IllegalArgumentException("Unsupported operation type code: " + typeCode);
+        }
+        return handler;
+    }
+
+    // Null while no recording runs, so the event class is not even loaded
+    static TaxCalculationEvent startCalculationEvent() {
+        if (!FlightRecording.isActive()) {
+            return null;
+        }
+        TaxCalculationEvent event = new TaxCalculationEvent();
+        event.begin();
+        return event;
+    }
+
     private void handleBuyOperation(Operation operation, CapitalGainsContext context, List<Tax> taxes) {
         Tax buyTax = this.buyOperationHandler.handle(operation, context);
         taxes.add(buyTax);
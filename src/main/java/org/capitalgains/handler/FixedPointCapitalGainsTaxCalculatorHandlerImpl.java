@@ -0,0 +1,95 @@
+package org.capitalgains.handler;
+
+import org.capitalgains.jfr.TaxCalculationEvent;
+import org.capitalgains.model.CapitalGainsContext;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
+import org.capitalgains.service.FixedPointMediumPriceCalculator;
+import org.capitalgains.service.FixedPointTaxCalculator;
+
+import static org.capitalgains.service.FixedPointMoney.toCents;
+import static org.capitalgains.service.FixedPointMoney.toDouble;
+
+public class FixedPointCapitalGainsTaxCalculatorHandlerImpl extends CapitalGainsTaxCalculatorHandlerImpl {
+
+    private final FixedPointMediumPriceCalculator mediumPriceCalculator;
+    private final FixedPointTaxCalculator taxCalculator;
+
+    public FixedPointCapitalGainsTaxCalculatorHandlerImpl() {
+        this(new FixedPointMediumPriceCalculator(), new FixedPointTaxCalculator());
+    }
+
+    public FixedPointCapitalGainsTaxCalculatorHandlerImpl(FixedPointMediumPriceCalculator mediumPriceCalculator, FixedPointTaxCalculator taxCalculator) {
+        this(mediumPriceCalculator, taxCalculator, new OperationTypeRegistry());
+    }
+
+    public FixedPointCapitalGainsTaxCalculatorHandlerImpl(FixedPointMediumPriceCalculator mediumPriceCalculator, FixedPointTaxCalculator taxCalculator, OperationTypeRegistry registry) {
+        super(mediumPriceCalculator,
+                taxCalculator,
+                new BuyOperationHandlerImpl(mediumPriceCalculator),
+                new FixedPointSellOperationHandlerImpl(taxCalculator),
+                registry);
+        this.mediumPriceCalculator = mediumPriceCalculator;
+        this.taxCalculator = taxCalculator;
+    }
+
+    @Override
+    public void calculateTaxes(OperationBatch batch, double[] taxes) {
+        byte[] types = batch.getType();
+        double[] unitCosts = batch.getUnitCost();
+        int[] quantities = batch.getQuantity();
+        int size = batch.size();
+        if (taxes.length < size) {
+            throw new IllegalArgumentException("Taxes array holds " + taxes.length + " entries but the batch has " + size + " operations");
+        }
+
+        long mediumPriceCents = 0;
+        int stocksQuantity = 0;
+        long lossCents = 0;
+        CapitalGainsContext context = null;
+        Operation operation = null;
+        TaxCalculationEvent event = CapitalGainsTaxCalculatorHandlerImpl.startCalculationEvent();
+        int sellCount = 0;
+        int lossCarryResets = 0;
+
+        for (int i = 0; i < size; i++) {
+            long unitCostCents = toCents(unitCosts[i]);
+            int quantity = quantities[i];
+
+            switch (types[i]) {
+                case OperationBatch.BUY:
+                    mediumPriceCents = mediumPriceCalculator.calculateCents(unitCostCents, mediumPriceCents, stocksQuantity, quantity);
+                    stocksQuantity += quantity;
+                    taxes[i] = 0;
+                    break;
+                case OperationBatch.SELL:
+                    taxes[i] = toDouble(taxCalculator.calculateTaxCents(unitCostCents, mediumPriceCents, lossCents, quantity));
+                    stocksQuantity -= quantity;
+                    sellCount++;
+                    long previousLossCents = lossCents;
+                    lossCents = taxCalculator.carryLossCents(unitCostCents, mediumPriceCents, lossCents, quantity);
+                    if (previousLossCents > 0 && lossCents == 0) {
+                        lossCarryResets++;
+                    }
+                    break;
+                default:
+                    // Registered handlers work on the double context, values are rounded back to cents afterwards
+                    if (context == null) {
+                        context = new CapitalGainsContext();
+                        operation = new Operation();
+                    }
+                    context.setMediumPriceValue(toDouble(mediumPriceCents));
+                    context.setStocksQuantity(stocksQuantity);
+                    context.setLossValue(toDouble(lossCents));
+                    taxes[i] = handleRegisteredOperation(types[i], unitCosts[i], quantity, operation, context);
+                    mediumPriceCents = toCents(context.getMediumPriceValue());
+                    stocksQuantity = context.getStocksQuantity();
+                    lossCents = toCents(context.getLossValue());
+                    break;
+            }
+        }
+        if (event != null) {
+            event.finish(size, sellCount, lossCarryResets);
+        }
+    }
+}
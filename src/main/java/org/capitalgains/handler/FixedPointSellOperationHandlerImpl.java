@@ -0,0 +1,37 @@
+package org.capitalgains.handler;
+
+import org.capitalgains.model.CapitalGainsContext;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.Tax;
+import org.capitalgains.service.FixedPointTaxCalculator;
+
+import static org.capitalgains.service.FixedPointMoney.toCents;
+import static org.capitalgains.service.FixedPointMoney.toDouble;
+
+public class FixedPointSellOperationHandlerImpl implements SellOperationHandler {
+
+    private final FixedPointTaxCalculator taxCalculator;
+
+    public FixedPointSellOperationHandlerImpl() {
+        this.taxCalculator = new FixedPointTaxCalculator();
+    }
+
+    public FixedPointSellOperationHandlerImpl(FixedPointTaxCalculator taxCalculator) {
+        this.taxCalculator = taxCalculator;
+    }
+
+    @Override
+    public Tax handle(Operation operation, CapitalGainsContext context) {
+        // The context only ever holds whole cents, so the round trip through double is exact
+        long priceCents = toCents(operation.getUnitCost());
+        long mediumPriceCents = toCents(context.getMediumPriceValue());
+        long lossCents = toCents(context.getLossValue());
+        int quantity = operation.getQuantity();
+
+        long taxCents = taxCalculator.calculateTaxCents(priceCents, mediumPriceCents, lossCents, quantity);
+
+        context.removeStocksQuantity(quantity);
+        context.setLossValue(toDouble(taxCalculator.carryLossCents(priceCents, mediumPriceCents, lossCents, quantity)));
+        return new Tax(toDouble(taxCents));
+    }
+}
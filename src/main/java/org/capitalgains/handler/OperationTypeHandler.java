@@ -0,0 +1,10 @@
+package org.capitalgains.handler;
+
+import org.capitalgains.model.CapitalGainsContext;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.Tax;
+
+public interface OperationTypeHandler {
+    // Updates the context with the operation and returns its tax, never null: an operation without tax returns new Tax(0)
+    Tax handle(Operation operation, CapitalGainsContext context);
+}
@@ -0,0 +1,32 @@
+package org.capitalgains.handler;
+
+import org.capitalgains.model.OperationType;
+
+/**
+ * Handlers for the operation types beyond buy and sell, held in an array
+ * indexed by {@link OperationType#getCode()}. Buy and sell stay wired into
+ * {@link CapitalGainsTaxCalculatorHandlerImpl} directly, so their call sites
+ * remain monomorphic however many types get registered here.
+ */
+public class OperationTypeRegistry {
+
+    private final OperationTypeHandler[] handlers = new OperationTypeHandler[OperationType.codeLimit()];
+
+    public OperationTypeRegistry register(OperationType operationType, OperationTypeHandler handler) {
+        if (operationType == OperationType.BUY || operationType == OperationType.SELL) {
+            throw new IllegalArgumentException("Operation type " + operationType + " is built in");
+        }
+        handlers[operationType.getCode()] = handler;
+        return this;
+    }
+
+    // Returns null for types without a handler
+    public OperationTypeHandler get(OperationType operationType) {
+        return handlers[operationType.getCode()];
+    }
+
+    // Handlers are copied when a calculator is created, so later registrations do not affect it
+    OperationTypeHandler[] toArray() {
+        return handlers.clone();
+    }
+}
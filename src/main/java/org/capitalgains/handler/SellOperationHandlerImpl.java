@@ -28,26 +28,21 @@ public class SellOperationHandlerImpl implements SellOperationHandler{
         );
 
         context.removeStocksQuantity(operation.getQuantity());
-        updateContextLossValue(operation, context);
+        context.setLossValue(carryLoss(
+                operation.getUnitCost(),
+                context.getMediumPriceValue(),
+                context.getLossValue(),
+                operation.getQuantity()
+        ));
         return new Tax(taxAmount);
     }
 
-    private void updateContextLossValue(Operation operation, CapitalGainsContext context) {
-        double lossValue = getLossValue(operation, context);
-
-        if (lossValue > 0) {
-            context.addLossValue(lossValue);
-        } else {
-            double profit = (operation.getUnitCost() - context.getMediumPriceValue()) * operation.getQuantity();
-            context.decreaseLossValue(profit);
-        }
-    }
-
-    private double getLossValue(Operation operation, CapitalGainsContext context) {
-        double lossValue = 0;
-        if (operation.getUnitCost() < context.getMediumPriceValue()) {
-            lossValue = (context.getMediumPriceValue() - operation.getUnitCost()) * operation.getQuantity();
+    // Loss carried after a sell: a loss adds to it, a profit is deducted from it down to zero. Shared with the batch kernel and what-if sells
+    public static double carryLoss(double price, double mediumPrice, double lossValue, int quantity) {
+        if (price < mediumPrice) {
+            return lossValue + (mediumPrice - price) * quantity;
         }
-        return lossValue;
+        double profit = (price - mediumPrice) * quantity;
+        return lossValue < profit ? 0 : lossValue - profit;
     }
 }
@@ -0,0 +1,30 @@
+package org.capitalgains.io;
+
+/**
+ * Layout of the binary operation and tax files, all numbers big-endian as
+ * written by {@link java.io.DataOutputStream}:
+ * <pre>
+ * operations file: "CGO1" line*
+ *   line:      count:int32 operation{count}
+ *   operation: type:int8 unit-cost:float64 quantity:int32      (13 bytes)
+ * taxes file:      "CGT1" line*
+ *   line:      count:int32 tax:float64{count}
+ * </pre>
+ * A line is one independent simulation, as a JSON line is. The type byte is
+ * the explicit {@link org.capitalgains.model.OperationType#getCode() type code},
+ * the same code an {@link org.capitalgains.model.OperationBatch} holds, so
+ * reordering the enum does not change what existing files mean. Unit costs and taxes
+ * keep the exact {@code double} the JSON text parses to, so both formats give
+ * identical results.
+ */
+public final class BinaryFormat {
+
+    public static final int OPERATIONS_MAGIC = 0x43474F31;
+    public static final int TAXES_MAGIC = 0x43475431;
+    public static final int COUNT_SIZE = Integer.BYTES;
+    public static final int OPERATION_SIZE = Byte.BYTES + Double.BYTES + Integer.BYTES;
+    public static final int TAX_SIZE = Double.BYTES;
+
+    private BinaryFormat() {
+    }
+}
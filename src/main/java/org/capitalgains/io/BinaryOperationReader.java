@@ -0,0 +1,42 @@
+package org.capitalgains.io;
+
+import org.capitalgains.model.OperationBatch;
+import org.capitalgains.model.OperationType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads the lines of a binary operations file, see {@link BinaryFormat}, into
+ * an {@link OperationBatch}. Instances are not thread-safe.
+ */
+public class BinaryOperationReader extends BinaryRecordReader {
+
+    public BinaryOperationReader(ReadableByteChannel channel) throws IOException {
+        super(channel, BinaryFormat.OPERATIONS_MAGIC, "operations");
+    }
+
+    // Returns false at the end of the input
+    public boolean next(OperationBatch batch) throws IOException {
+        batch.clear();
+        int count = nextCount();
+        if (count < 0) {
+            return false;
+        }
+        ByteBuffer buffer = this.buffer;
+        int remaining = count;
+        while (remaining > 0) {
+            int run = available(BinaryFormat.OPERATION_SIZE, remaining);
+            for (int i = 0; i < run; i++) {
+                byte type = buffer.get();
+                if (!OperationType.isValidCode(type)) {
+                    throw new IOException("Invalid operation type code: " + type);
+                }
+                batch.add(type, buffer.getDouble(), buffer.getInt());
+            }
+            remaining -= run;
+        }
+        return true;
+    }
+}
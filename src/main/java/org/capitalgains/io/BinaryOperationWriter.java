@@ -0,0 +1,36 @@
+package org.capitalgains.io;
+
+import org.capitalgains.model.OperationBatch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes operation lines in the binary format, see {@link BinaryFormat}.
+ */
+public class BinaryOperationWriter extends BinaryRecordWriter {
+
+    public BinaryOperationWriter(OutputStream outputStream) {
+        super(outputStream, BinaryFormat.OPERATIONS_MAGIC);
+    }
+
+    public void writeLine(OperationBatch batch) throws IOException {
+        byte[] type = batch.getType();
+        double[] unitCost = batch.getUnitCost();
+        int[] quantity = batch.getQuantity();
+        int size = batch.size();
+
+        reserve(BinaryFormat.COUNT_SIZE);
+        ByteBuffer buffer = this.buffer;
+        buffer.putInt(size);
+        int written = 0;
+        while (written < size) {
+            int run = capacity(BinaryFormat.OPERATION_SIZE, size - written);
+            for (int i = written; i < written + run; i++) {
+                buffer.put(type[i]).putDouble(unitCost[i]).putInt(quantity[i]);
+            }
+            written += run;
+        }
+    }
+}
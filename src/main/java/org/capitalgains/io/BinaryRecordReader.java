@@ -0,0 +1,71 @@
+package org.capitalgains.io;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Buffered big-endian reads of the {@link BinaryFormat} files from a channel,
+ * refilling a direct buffer in bulk so records are decoded straight from it.
+ */
+abstract class BinaryRecordReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    protected final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).flip();
+    private boolean endOfInput;
+
+    BinaryRecordReader(ReadableByteChannel channel, int magic, String fileKind) throws IOException {
+        this.channel = channel;
+        if (!require(Integer.BYTES) || buffer.getInt() != magic) {
+            throw new IOException("Not a binary " + fileKind + " file");
+        }
+    }
+
+    // Reads the count of the next line; -1 at the end of the input
+    protected int nextCount() throws IOException {
+        if (!require(BinaryFormat.COUNT_SIZE)) {
+            if (buffer.hasRemaining()) {
+                throw new EOFException("Truncated line count");
+            }
+            return -1;
+        }
+        int count = buffer.getInt();
+        if (count < 0) {
+            throw new IOException("Negative line count: " + count);
+        }
+        return count;
+    }
+
+    // Makes at least size bytes available, unless the input ends first
+    protected boolean require(int size) throws IOException {
+        if (buffer.remaining() >= size) {
+            return true;
+        }
+        buffer.compact();
+        try {
+            while (buffer.position() < size && !endOfInput) {
+                endOfInput = channel.read(buffer) == -1;
+            }
+        } finally {
+            buffer.flip();
+        }
+        return buffer.remaining() >= size;
+    }
+
+    // Records of a line are read in runs of whole records that are already buffered
+    protected int available(int recordSize, int wanted) throws IOException {
+        if (!require(recordSize)) {
+            throw new EOFException("Truncated record");
+        }
+        return Math.min(wanted, buffer.remaining() / recordSize);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,55 @@
+package org.capitalgains.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Buffered big-endian writes of the {@link BinaryFormat} files. The stream is
+ * only written when the buffer is full, flushed or closed.
+ */
+abstract class BinaryRecordWriter implements Closeable, Flushable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final OutputStream outputStream;
+    protected final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    BinaryRecordWriter(OutputStream outputStream, int magic) {
+        this.outputStream = outputStream;
+        buffer.putInt(magic);
+    }
+
+    // Makes room for at least size bytes
+    protected void reserve(int size) throws IOException {
+        if (buffer.remaining() < size) {
+            drain();
+        }
+    }
+
+    // Records of a line are written in runs of as many as fit
+    protected int capacity(int recordSize, int wanted) throws IOException {
+        reserve(recordSize);
+        return Math.min(wanted, buffer.remaining() / recordSize);
+    }
+
+    private void drain() throws IOException {
+        outputStream.write(buffer.array(), 0, buffer.position());
+        buffer.clear();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        outputStream.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (outputStream) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.capitalgains.io;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads the lines of a binary taxes file, see {@link BinaryFormat}.
+ */
+public class BinaryTaxReader extends BinaryRecordReader {
+
+    public BinaryTaxReader(ReadableByteChannel channel) throws IOException {
+        super(channel, BinaryFormat.TAXES_MAGIC, "taxes");
+    }
+
+    // Null at the end of the input
+    public double[] nextLine() throws IOException {
+        int count = nextCount();
+        if (count < 0) {
+            return null;
+        }
+        double[] taxes = new double[count];
+        int read = 0;
+        while (read < count) {
+            int run = available(BinaryFormat.TAX_SIZE, count - read);
+            buffer.asDoubleBuffer().get(taxes, read, run);
+            buffer.position(buffer.position() + run * BinaryFormat.TAX_SIZE);
+            read += run;
+        }
+        return taxes;
+    }
+}
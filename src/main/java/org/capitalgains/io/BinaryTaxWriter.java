@@ -0,0 +1,36 @@
+package org.capitalgains.io;
+
+import org.capitalgains.jfr.FlightRecording;
+import org.capitalgains.jfr.OutputWriteEvent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes tax lines in the binary format, see {@link BinaryFormat}.
+ */
+public class BinaryTaxWriter extends BinaryRecordWriter {
+
+    public BinaryTaxWriter(OutputStream outputStream) {
+        super(outputStream, BinaryFormat.TAXES_MAGIC);
+    }
+
+    public void writeLine(double[] taxes, int count) throws IOException {
+        OutputWriteEvent event = FlightRecording.isActive() ? new OutputWriteEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        reserve(BinaryFormat.COUNT_SIZE);
+        buffer.putInt(count);
+        int written = 0;
+        while (written < count) {
+            int run = capacity(BinaryFormat.TAX_SIZE, count - written);
+            buffer.asDoubleBuffer().put(taxes, written, run);
+            buffer.position(buffer.position() + run * BinaryFormat.TAX_SIZE);
+            written += run;
+        }
+        if (event != null) {
+            event.finish(count);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.capitalgains.io;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.capitalgains.model.OperationBatch;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Converts JSON operation lines into a binary operations file, see
+ * {@link BinaryFormat}, one line at a time. Like the calculator, the input
+ * ends at EOF or at the first empty line.
+ * <pre>
+ * capitalgains-convert [input.json [output.bin]]
+ * </pre>
+ * Without arguments it reads stdin and writes stdout.
+ */
+public class JsonToBinaryConverter {
+
+    private final OperationLineDecoder decoder;
+    private final OperationBatch batch = new OperationBatch();
+
+    public JsonToBinaryConverter(ObjectMapper mapper) {
+        this.decoder = new OperationLineDecoder(mapper, true);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 2) {
+            throw new IllegalArgumentException("Usage: capitalgains-convert [input.json [output.bin]]");
+        }
+        JsonToBinaryConverter converter = new JsonToBinaryConverter(new ObjectMapper());
+        OutputStream outputStream = args.length > 1
+                ? Files.newOutputStream(Path.of(args[1]))
+                : new FileOutputStream(FileDescriptor.out);
+
+        try (BinaryOperationWriter writer = new BinaryOperationWriter(new BufferedOutputStream(outputStream))) {
+            if (args.length > 0) {
+                try (MappedLineReader reader = new MappedLineReader(Path.of(args[0]))) {
+                    converter.convert(reader, writer);
+                }
+            } else {
+                converter.convert(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)), writer);
+            }
+        }
+    }
+
+    // Returns the number of lines converted
+    public int convert(MappedLineReader reader, BinaryOperationWriter writer) throws IOException {
+        return convert(reader::nextLine, writer);
+    }
+
+    public int convert(BufferedReader reader, BinaryOperationWriter writer) throws IOException {
+        return convert(() -> {
+            String line = reader.readLine();
+            return line == null ? null : ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        }, writer);
+    }
+
+    private int convert(LineSource source, BinaryOperationWriter writer) throws IOException {
+        int lines = 0;
+        ByteBuffer line;
+        while ((line = source.next()) != null && line.hasRemaining()) {
+            decoder.decode(line, batch);
+            writer.writeLine(batch);
+            lines++;
+        }
+        return lines;
+    }
+
+    private interface LineSource {
+        // Null at the end of the input
+        ByteBuffer next() throws IOException;
+    }
+}
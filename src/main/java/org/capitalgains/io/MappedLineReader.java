@@ -0,0 +1,91 @@
+package org.capitalgains.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Splits a memory-mapped file into lines without decoding any bytes. Each line
+ * is returned as a read-only slice of the mapping, without its line
+ * terminator. Files larger than one mapping are walked through consecutive
+ * windows, each starting at the beginning of a line; a single line must fit in
+ * one window.
+ */
+public class MappedLineReader implements Closeable {
+
+    private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int maxWindowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+
+    public MappedLineReader(Path path) throws IOException {
+        this(path, MAX_WINDOW_SIZE);
+    }
+
+    public MappedLineReader(Path path, int maxWindowSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.maxWindowSize = maxWindowSize;
+    }
+
+    public ByteBuffer nextLine() throws IOException {
+        if (position >= fileSize) {
+            return null;
+        }
+        if (window == null || position >= windowStart + window.limit()) {
+            map(position);
+        }
+
+        int lineStart = (int) (position - windowStart);
+        int newline = indexOfNewline(lineStart);
+        if (newline < 0 && windowStart + window.limit() < fileSize) {
+            if (windowStart == position) {
+                throw new IOException("Line starting at offset " + position + " is longer than " + maxWindowSize + " bytes");
+            }
+            // The line continues past this window, so map a new one starting at it
+            map(position);
+            lineStart = 0;
+            newline = indexOfNewline(lineStart);
+            if (newline < 0 && windowStart + window.limit() < fileSize) {
+                throw new IOException("Line starting at offset " + position + " is longer than " + maxWindowSize + " bytes");
+            }
+        }
+
+        int lineEnd = newline < 0 ? window.limit() : newline;
+        position = windowStart + (newline < 0 ? lineEnd : newline + 1);
+        if (lineEnd > lineStart && window.get(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+        return window.slice(lineStart, lineEnd - lineStart).asReadOnlyBuffer();
+    }
+
+    private int indexOfNewline(int from) {
+        int limit = window.limit();
+        for (int i = from; i < limit; i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void map(long start) throws IOException {
+        long size = Math.min(maxWindowSize, fileSize - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        windowStart = start;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,327 @@
+package org.capitalgains.io;
+
+import org.capitalgains.model.OperationBatch;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parser for exactly the operation schema,
+ * {@code [{"operation":"buy","unit-cost":10.00,"quantity":100}, ...]}, working
+ * on raw bytes. Keys and operation types are matched byte by byte and numbers
+ * are accumulated straight into primitives. Anything outside the schema, such
+ * as unknown keys, escaped strings or fractional quantities, raises an
+ * {@link OperationParseException} with the offending offset relative to the
+ * start of the line. Instances are not thread-safe.
+ */
+public class OperationByteParser {
+
+    private static final byte[] OPERATION = "operation".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] UNIT_COST = "unit-cost".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] QUANTITY = "quantity".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BUY = "buy".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SELL = "sell".getBytes(StandardCharsets.US_ASCII);
+
+    // Doubles with up to 15 significant digits divided or multiplied by an exact power of ten are correctly rounded
+    private static final int MAX_FAST_PATH_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private ByteBuffer buffer;
+    private int start;
+    private int position;
+    private int end;
+
+    public void parse(byte[] bytes, int offset, int length, OperationBatch batch) throws OperationParseException {
+        parse(ByteBuffer.wrap(bytes, offset, length), batch);
+    }
+
+    public void parse(ByteBuffer line, OperationBatch batch) throws OperationParseException {
+        this.buffer = line;
+        this.start = line.position();
+        this.position = start;
+        this.end = line.limit();
+
+        try {
+            skipWhitespace();
+            expect('[');
+            skipWhitespace();
+            if (peek() == ']') {
+                position++;
+            } else {
+                while (true) {
+                    parseOperation(batch);
+                    skipWhitespace();
+                    byte next = next();
+                    if (next == ']') {
+                        break;
+                    }
+                    if (next != ',') {
+                        throw error("Expected ',' or ']' after operation", position - 1);
+                    }
+                    skipWhitespace();
+                }
+            }
+            skipWhitespace();
+            if (position != end) {
+                throw error("Unexpected content after operations array", position);
+            }
+        } finally {
+            this.buffer = null;
+        }
+    }
+
+    private void parseOperation(OperationBatch batch) throws OperationParseException {
+        int objectStart = position;
+        expect('{');
+
+        byte type = -1;
+        double unitCost = 0;
+        int quantity = 0;
+
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+        } else {
+            while (true) {
+                byte[] key = parseKey();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                if (key == OPERATION) {
+                    type = parseOperationType();
+                } else if (key == UNIT_COST) {
+                    unitCost = parseDouble();
+                } else {
+                    quantity = parseInt();
+                }
+                skipWhitespace();
+                byte next = next();
+                if (next == '}') {
+                    break;
+                }
+                if (next != ',') {
+                    throw error("Expected ',' or '}' after field", position - 1);
+                }
+                skipWhitespace();
+            }
+        }
+
+        if (type < 0) {
+            throw error("Missing \"operation\" field in object", objectStart);
+        }
+        batch.add(type, unitCost, quantity);
+    }
+
+    private byte[] parseKey() throws OperationParseException {
+        int keyStart = position;
+        expect('"');
+        byte[] key;
+        switch (peek()) {
+            case 'o':
+                key = OPERATION;
+                break;
+            case 'u':
+                key = UNIT_COST;
+                break;
+            case 'q':
+                key = QUANTITY;
+                break;
+            default:
+                throw error("Unknown field", keyStart);
+        }
+        if (!matches(key) || peekAt(position + key.length) != '"') {
+            throw error("Unknown field", keyStart);
+        }
+        position += key.length + 1;
+        return key;
+    }
+
+    private byte parseOperationType() throws OperationParseException {
+        int valueStart = position;
+        expect('"');
+        if (matchesIgnoreCase(BUY) && peekAt(position + BUY.length) == '"') {
+            position += BUY.length + 1;
+            return OperationBatch.BUY;
+        }
+        if (matchesIgnoreCase(SELL) && peekAt(position + SELL.length) == '"') {
+            position += SELL.length + 1;
+            return OperationBatch.SELL;
+        }
+        throw error("Unknown operation type, expected \"buy\" or \"sell\"", valueStart);
+    }
+
+    private double parseDouble() throws OperationParseException {
+        int numberStart = position;
+        boolean negative = peek() == '-';
+        if (negative) {
+            position++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+
+        // JSON grammar: at least one integer digit, and no leading zero before another digit
+        int integerStart = position;
+        while (isDigit(peek())) {
+            int digit = next() - '0';
+            if (significantDigits > 0 || digit != 0) {
+                significantDigits++;
+            }
+            if (significantDigits <= MAX_FAST_PATH_DIGITS) {
+                mantissa = mantissa * 10 + digit;
+            } else {
+                exponent++;
+            }
+        }
+        checkIntegerDigits(numberStart, integerStart, "Expected a number");
+        if (peek() == '.') {
+            position++;
+            int fractionStart = position;
+            while (isDigit(peek())) {
+                int digit = next() - '0';
+                if (significantDigits > 0 || digit != 0) {
+                    significantDigits++;
+                }
+                if (significantDigits <= MAX_FAST_PATH_DIGITS) {
+                    mantissa = mantissa * 10 + digit;
+                    exponent--;
+                }
+            }
+            if (position == fractionStart) {
+                throw error("Expected digits after decimal point", position);
+            }
+        }
+        if (peek() == 'e' || peek() == 'E') {
+            position++;
+            boolean negativeExponent = peek() == '-';
+            if (negativeExponent || peek() == '+') {
+                position++;
+            }
+            int exponentStart = position;
+            int explicitExponent = 0;
+            while (isDigit(peek())) {
+                explicitExponent = Math.min(explicitExponent * 10 + (next() - '0'), 100_000);
+            }
+            if (position == exponentStart) {
+                throw error("Expected digits in exponent", position);
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (significantDigits > MAX_FAST_PATH_DIGITS || exponent < -22 || exponent > 22) {
+            return parseDoubleSlowPath(numberStart);
+        }
+        double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+
+    private double parseDoubleSlowPath(int numberStart) {
+        byte[] bytes = new byte[position - numberStart];
+        buffer.get(numberStart, bytes);
+        return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+    }
+
+    private int parseInt() throws OperationParseException {
+        int numberStart = position;
+        boolean negative = peek() == '-';
+        if (negative) {
+            position++;
+        }
+        long value = 0;
+        int digitsStart = position;
+        while (isDigit(peek())) {
+            value = value * 10 + (next() - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw error("Quantity out of range", numberStart);
+            }
+        }
+        checkIntegerDigits(numberStart, digitsStart, "Expected an integer quantity");
+        byte next = peek();
+        if (next == '.' || next == 'e' || next == 'E') {
+            throw error("Expected an integer quantity", numberStart);
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw error("Quantity out of range", numberStart);
+        }
+        return (int) value;
+    }
+
+    private void checkIntegerDigits(int numberStart, int digitsStart, String missingMessage) throws OperationParseException {
+        if (position == digitsStart) {
+            throw error(missingMessage, numberStart);
+        }
+        if (position - digitsStart > 1 && buffer.get(digitsStart) == '0') {
+            throw error("Leading zeros are not allowed", numberStart);
+        }
+    }
+
+    private boolean matches(byte[] expected) {
+        if (position + expected.length > end) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(position + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchesIgnoreCase(byte[] expectedLowerCase) {
+        if (position + expectedLowerCase.length > end) {
+            return false;
+        }
+        for (int i = 0; i < expectedLowerCase.length; i++) {
+            // Setting bit 0x20 lower-cases ASCII letters; the expected bytes are all letters
+            if ((buffer.get(position + i) | 0x20) != expectedLowerCase[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void skipWhitespace() {
+        while (position < end) {
+            byte current = buffer.get(position);
+            if (current != ' ' && current != '\t' && current != '\r' && current != '\n') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private void expect(char expected) throws OperationParseException {
+        if (peek() != expected) {
+            throw error("Expected '" + expected + "'", position);
+        }
+        position++;
+    }
+
+    private byte peek() {
+        return peekAt(position);
+    }
+
+    private byte peekAt(int index) {
+        return index < end ? buffer.get(index) : 0;
+    }
+
+    private byte next() throws OperationParseException {
+        if (position >= end) {
+            throw error("Unexpected end of line", position);
+        }
+        return buffer.get(position++);
+    }
+
+    private static boolean isDigit(byte value) {
+        return value >= '0' && value <= '9';
+    }
+
+    private OperationParseException error(String message, int index) {
+        return new OperationParseException(message, index - start);
+    }
+}
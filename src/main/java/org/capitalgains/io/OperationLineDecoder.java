@@ -0,0 +1,76 @@
+package org.capitalgains.io;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.capitalgains.jfr.FlightRecording;
+import org.capitalgains.jfr.LineParseEvent;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Decodes one raw input line into an {@link OperationBatch}. The schema parser
+ * is tried first; lines it does not accept go through Jackson databinding. If
+ * Jackson rejects the line as well, the schema parser's positioned error is
+ * reported. Instances are not thread-safe.
+ */
+public class OperationLineDecoder {
+
+    public static final String SCHEMA_PARSER = "schema";
+    public static final String JACKSON_PARSER = "jackson";
+
+    private final OperationByteParser byteParser;
+    private final ObjectReader operationsReader;
+
+    public OperationLineDecoder(ObjectMapper mapper, boolean schemaParserEnabled) {
+        this.byteParser = schemaParserEnabled ? new OperationByteParser() : null;
+        this.operationsReader = mapper.readerFor(new TypeReference<List<Operation>>() {});
+    }
+
+    public void decode(ByteBuffer line, OperationBatch batch) throws IOException {
+        if (!FlightRecording.isActive()) {
+            decodeLine(line, batch);
+            return;
+        }
+        LineParseEvent event = new LineParseEvent();
+        event.begin();
+        int lineLength = line.remaining();
+        String parser = decodeLine(line, batch);
+        event.finish(parser, lineLength, batch.size());
+    }
+
+    // Returns the name of the parser that accepted the line
+    private String decodeLine(ByteBuffer line, OperationBatch batch) throws IOException {
+        batch.clear();
+        if (byteParser == null) {
+            decodeWithJackson(line, batch);
+            return JACKSON_PARSER;
+        }
+
+        try {
+            byteParser.parse(line, batch);
+            return SCHEMA_PARSER;
+        } catch (OperationParseException e) {
+            batch.clear();
+            try {
+                decodeWithJackson(line, batch);
+                return JACKSON_PARSER;
+            } catch (IOException | RuntimeException jacksonException) {
+                e.addSuppressed(jacksonException);
+                throw e;
+            }
+        }
+    }
+
+    private void decodeWithJackson(ByteBuffer line, OperationBatch batch) throws IOException {
+        List<Operation> operations = operationsReader.readValue(new ByteBufferBackedInputStream(line.duplicate()));
+        for (Operation operation : operations) {
+            batch.add(operation.getOperationType(), operation.getUnitCost(), operation.getQuantity());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.capitalgains.io;
+
+import java.io.IOException;
+
+public class OperationParseException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final long offset;
+
+    public OperationParseException(String message, long offset) {
+        super(message + " at offset " + offset);
+        this.offset = offset;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+}
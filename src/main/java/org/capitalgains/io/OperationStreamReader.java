@@ -0,0 +1,83 @@
+package org.capitalgains.io;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads operation arrays token by token, one array per input line, without
+ * materializing the line or the list of operations. The returned
+ * {@link Operation} instance is reused for every element, so callers must not
+ * keep a reference to it after asking for the next one.
+ */
+public class OperationStreamReader implements Closeable {
+
+    private final JsonParser parser;
+    private final Operation operation = new Operation();
+    private int lastArrayEndLine = -1;
+
+    public OperationStreamReader(JsonFactory factory, InputStream inputStream) throws IOException {
+        this.parser = factory.createParser(inputStream);
+    }
+
+    public boolean nextLine() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            return false;
+        }
+        // A blank line ends the input, same as in the line based mode
+        if (lastArrayEndLine > 0 && parser.getTokenLocation().getLineNr() > lastArrayEndLine + 1) {
+            return false;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Expected an array of operations but found " + token);
+        }
+        return true;
+    }
+
+    public Operation nextOperation() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_ARRAY) {
+            lastArrayEndLine = parser.getCurrentLocation().getLineNr();
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected an operation object but found " + token);
+        }
+
+        // Missing fields keep the defaults databinding gives them, nothing carries over from the previous element
+        operation.setOperationType((OperationType) null);
+        operation.setUnitCost(0);
+        operation.setQuantity(0);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            switch (fieldName) {
+                case "operation":
+                    operation.setOperationType(parser.getText());
+                    break;
+                case "unit-cost":
+                    operation.setUnitCost(parser.getDoubleValue());
+                    break;
+                case "quantity":
+                    operation.setQuantity(parser.getIntValue());
+                    break;
+                default:
+                    throw new JsonParseException(parser, "Unrecognized field \"" + fieldName + "\"");
+            }
+        }
+        return operation;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,68 @@
+package org.capitalgains.io;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.capitalgains.jfr.FlightRecording;
+import org.capitalgains.jfr.OutputWriteEvent;
+import org.capitalgains.model.Tax;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes each tax as soon as it is calculated, producing the same
+ * {@code [{"tax":...}]} line as the databind output. The underlying stream is
+ * flushed once per line.
+ */
+public class TaxStreamWriter implements Closeable {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final JsonGenerator generator;
+
+    public TaxStreamWriter(JsonFactory factory, OutputStream outputStream) throws IOException {
+        this.generator = factory.createGenerator(outputStream);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    public void startLine() throws IOException {
+        generator.writeStartArray();
+    }
+
+    public void write(Tax tax) throws IOException {
+        writeTax(tax.getTax());
+    }
+
+    public void writeTax(double tax) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("tax", tax);
+        generator.writeEndObject();
+    }
+
+    public void writeLine(double[] taxes, int count) throws IOException {
+        OutputWriteEvent event = FlightRecording.isActive() ? new OutputWriteEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        startLine();
+        for (int i = 0; i < count; i++) {
+            writeTax(taxes[i]);
+        }
+        endLine();
+        if (event != null) {
+            event.finish(count);
+        }
+    }
+
+    public void endLine() throws IOException {
+        generator.writeEndArray();
+        generator.writeRaw(LINE_SEPARATOR);
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,20 @@
+package org.capitalgains.jfr;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Tells whether Flight Recorder has been started in this JVM, either at launch
+ * or later through {@code jcmd JFR.start}. Loading the first event class while
+ * it has not makes the JVM bootstrap the whole JFR metadata repository, which
+ * takes longer than a small input needs to be calculated, so event instances
+ * are only created once this returns {@code true}.
+ */
+public final class FlightRecording {
+
+    private FlightRecording() {
+    }
+
+    public static boolean isActive() {
+        return FlightRecorder.isInitialized();
+    }
+}
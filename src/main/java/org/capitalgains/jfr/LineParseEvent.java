@@ -0,0 +1,35 @@
+package org.capitalgains.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.capitalgains.LineParse")
+@Label("Line Parse")
+@Description("Parsing of one input line into operations")
+@Category({"Capital Gains"})
+public class LineParseEvent extends Event {
+
+    @Label("Parser")
+    @Description("schema or jackson")
+    public String parser;
+
+    @Label("Line Length")
+    @DataAmount
+    public long lineLength;
+
+    @Label("Operation Count")
+    public int operationCount;
+
+    public void finish(String parser, long lineLength, int operationCount) {
+        if (shouldCommit()) {
+            this.parser = parser;
+            this.lineLength = lineLength;
+            this.operationCount = operationCount;
+            commit();
+        }
+    }
+}
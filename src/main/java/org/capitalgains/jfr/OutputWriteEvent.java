@@ -0,0 +1,24 @@
+package org.capitalgains.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.capitalgains.OutputWrite")
+@Label("Output Write")
+@Description("Serialization and output of the taxes of one line")
+@Category({"Capital Gains"})
+public class OutputWriteEvent extends Event {
+
+    @Label("Tax Count")
+    public int taxCount;
+
+    public void finish(int taxCount) {
+        if (shouldCommit()) {
+            this.taxCount = taxCount;
+            commit();
+        }
+    }
+}
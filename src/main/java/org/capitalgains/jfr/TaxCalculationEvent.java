@@ -0,0 +1,33 @@
+package org.capitalgains.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.capitalgains.TaxCalculation")
+@Label("Tax Calculation")
+@Description("Tax calculation for the operations of one line")
+@Category({"Capital Gains"})
+public class TaxCalculationEvent extends Event {
+
+    @Label("Operation Count")
+    public int operationCount;
+
+    @Label("Sell Count")
+    public int sellCount;
+
+    @Label("Loss Carry Resets")
+    @Description("Sells whose profit used up all of the carried loss")
+    public int lossCarryResets;
+
+    public void finish(int operationCount, int sellCount, int lossCarryResets) {
+        if (shouldCommit()) {
+            this.operationCount = operationCount;
+            this.sellCount = sellCount;
+            this.lossCarryResets = lossCarryResets;
+            commit();
+        }
+    }
+}
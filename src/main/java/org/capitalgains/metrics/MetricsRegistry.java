@@ -0,0 +1,144 @@
+package org.capitalgains.metrics;
+
+import org.capitalgains.cache.LineResultCache;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Line and operation counters plus one latency histogram per {@link Stage}.
+ * Timing is taken with a start/record pair:
+ * <pre>
+ * long time = metrics.startTime();
+ * ...parse...
+ * time = metrics.record(Stage.PARSE, time);
+ * ...calculate...
+ * metrics.record(Stage.CALCULATE, time);
+ * </pre>
+ * A disabled registry never reads the clock, so leaving the calls in the hot
+ * path costs one predictable branch. Counters and histograms are striped and
+ * may be updated from any number of threads.
+ */
+public class MetricsRegistry implements MetricsRegistryMBean {
+
+    public static final MetricsRegistry DISABLED = new MetricsRegistry(false);
+
+    private static final String DOMAIN = "org.capitalgains";
+
+    private final boolean enabled;
+    private final LongAdder linesProcessed = new LongAdder();
+    private final LongAdder operationsProcessed = new LongAdder();
+    private final Map<Stage, LatencyHistogram> stageLatencies = new EnumMap<>(Stage.class);
+    private LineResultCache resultCache;
+
+    public MetricsRegistry(boolean enabled) {
+        this.enabled = enabled;
+        for (Stage stage : Stage.values()) {
+            stageLatencies.put(stage, new LatencyHistogram());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long startTime() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    // Records the time elapsed since startTime and returns the current time, to start the next stage with
+    public long record(Stage stage, long startTime) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        stageLatencies.get(stage).record(now - startTime);
+        return now;
+    }
+
+    public void lineProcessed(int operations) {
+        if (enabled) {
+            linesProcessed.increment();
+            operationsProcessed.add(operations);
+        }
+    }
+
+    // Reported with the other metrics; set before registerMBeans
+    public void setResultCache(LineResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    public LatencyHistogram getStageLatency(Stage stage) {
+        return stageLatencies.get(stage);
+    }
+
+    @Override
+    public long getLinesProcessed() {
+        return linesProcessed.sum();
+    }
+
+    @Override
+    public long getOperationsProcessed() {
+        return operationsProcessed.sum();
+    }
+
+    // org.capitalgains:type=Metrics for the counters, org.capitalgains:type=StageLatency,stage=<name> per stage
+    // and org.capitalgains:type=ResultCache for the result cache, if there is one
+    public void registerMBeans() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        register(server, new ObjectName(DOMAIN + ":type=Metrics"), this);
+        for (Stage stage : Stage.values()) {
+            register(server, new ObjectName(DOMAIN + ":type=StageLatency,stage=" + stage.getMetricName()), stageLatencies.get(stage));
+        }
+        if (resultCache != null) {
+            register(server, new ObjectName(DOMAIN + ":type=ResultCache"), resultCache);
+        }
+    }
+
+    public void printSummary(PrintStream out) {
+        out.printf("lines=%d operations=%d%n", getLinesProcessed(), getOperationsProcessed());
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = stageLatencies.get(stage);
+            out.printf("%-9s count=%d mean=%dus p50=%dus p99=%dus p99.9=%dus max=%dus%n",
+                    stage.getMetricName(),
+                    histogram.getCount(),
+                    micros(histogram.getMeanNanos()),
+                    micros(histogram.getP50Nanos()),
+                    micros(histogram.getP99Nanos()),
+                    micros(histogram.getP999Nanos()),
+                    micros(histogram.getMaxNanos()));
+        }
+        if (resultCache != null) {
+            out.printf("cache     hits=%d misses=%d evictions=%d entries=%d size=%dKiB%n",
+                    resultCache.getHits(), resultCache.getMisses(), resultCache.getEvictions(),
+                    resultCache.getEntries(), resultCache.getSizeBytes() / 1024);
+        }
+        out.flush();
+    }
+
+    public void printSummaryAtShutdown(PrintStream out) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> printSummary(out), "capital-gains-metrics-summary"));
+    }
+
+    private static void register(MBeanServer server, ObjectName name, Object bean) throws JMException {
+        try {
+            server.registerMBean(bean, name);
+        } catch (InstanceAlreadyExistsException e) {
+            // Another registry in this JVM got there first, replace it with the current one
+            server.unregisterMBean(name);
+            server.registerMBean(bean, name);
+        }
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
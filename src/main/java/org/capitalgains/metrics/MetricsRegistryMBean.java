@@ -0,0 +1,7 @@
+package org.capitalgains.metrics;
+
+public interface MetricsRegistryMBean {
+    long getLinesProcessed();
+
+    long getOperationsProcessed();
+}
@@ -0,0 +1,17 @@
+package org.capitalgains.metrics;
+
+public enum Stage {
+    PARSE("parse"),
+    CALCULATE("calculate"),
+    WRITE("write");
+
+    private final String metricName;
+
+    Stage(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+}
@@ -48,4 +48,14 @@ public class CapitalGainsContext {
     public void removeStocksQuantity(int stocksQuantity) {
         this.stocksQuantity -= stocksQuantity;
     }
+
+    public CapitalGainsContextSnapshot snapshot() {
+        return new CapitalGainsContextSnapshot(mediumPriceValue, stocksQuantity, lossValue);
+    }
+
+    public void restore(CapitalGainsContextSnapshot snapshot) {
+        this.mediumPriceValue = snapshot.getMediumPriceValue();
+        this.stocksQuantity = snapshot.getStocksQuantity();
+        this.lossValue = snapshot.getLossValue();
+    }
 }
@@ -0,0 +1,55 @@
+package org.capitalgains.model;
+
+public final class CapitalGainsContextSnapshot {
+    public static final CapitalGainsContextSnapshot EMPTY = new CapitalGainsContextSnapshot(0, 0, 0);
+
+    private final double mediumPriceValue;
+    private final int stocksQuantity;
+    private final double lossValue;
+
+    public CapitalGainsContextSnapshot(double mediumPriceValue, int stocksQuantity, double lossValue) {
+        this.mediumPriceValue = mediumPriceValue;
+        this.stocksQuantity = stocksQuantity;
+        this.lossValue = lossValue;
+    }
+
+    public double getMediumPriceValue() {
+        return mediumPriceValue;
+    }
+
+    public int getStocksQuantity() {
+        return stocksQuantity;
+    }
+
+    public double getLossValue() {
+        return lossValue;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CapitalGainsContextSnapshot)) {
+            return false;
+        }
+        CapitalGainsContextSnapshot snapshot = (CapitalGainsContextSnapshot) other;
+        return Double.compare(mediumPriceValue, snapshot.mediumPriceValue) == 0
+                && stocksQuantity == snapshot.stocksQuantity
+                && Double.compare(lossValue, snapshot.lossValue) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Double.hashCode(mediumPriceValue);
+        result = 31 * result + stocksQuantity;
+        return 31 * result + Double.hashCode(lossValue);
+    }
+
+    @Override
+    public String toString() {
+        return "CapitalGainsContextSnapshot{mediumPriceValue=" + mediumPriceValue
+                + ", stocksQuantity=" + stocksQuantity
+                + ", lossValue=" + lossValue + '}';
+    }
+}
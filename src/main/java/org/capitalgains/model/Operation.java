@@ -14,7 +14,7 @@ public class Operation {
 
     @JsonProperty("operation")
     public void setOperationType(String operationType) {
-        this.operationType = OperationType.valueOf(operationType.toUpperCase());
+        this.operationType = OperationType.valueOf(operationType.toUpperCase().replace('-', '_'));
     }
 
     public void setOperationType(OperationType operationType) {
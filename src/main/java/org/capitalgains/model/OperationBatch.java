@@ -0,0 +1,81 @@
+package org.capitalgains.model;
+
+import java.util.Arrays;
+
+/**
+ * Columnar, reusable holder for a sequence of operations. Types are stored as
+ * their {@link OperationType#getCode() type code}, {@link #BUY}/{@link #SELL}
+ * for the built-in ones, so a whole portfolio lives in three primitive arrays instead
+ * of one object per operation.
+ */
+public class OperationBatch {
+    // Constant so they can label switch cases; OperationTypeTest keeps them equal to the type codes
+    public static final byte BUY = 0;
+    public static final byte SELL = 1;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private byte[] type;
+    private double[] unitCost;
+    private int[] quantity;
+    private int size;
+
+    public OperationBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public OperationBatch(int capacity) {
+        this.type = new byte[capacity];
+        this.unitCost = new double[capacity];
+        this.quantity = new int[capacity];
+    }
+
+    public static byte typeCode(OperationType operationType) {
+        return operationType.getCode();
+    }
+
+    public static OperationType operationType(byte typeCode) {
+        return OperationType.fromCode(typeCode);
+    }
+
+    public void add(OperationType operationType, double unitCost, int quantity) {
+        add(typeCode(operationType), unitCost, quantity);
+    }
+
+    public void add(byte typeCode, double unitCost, int quantity) {
+        if (size == type.length) {
+            grow();
+        }
+        this.type[size] = typeCode;
+        this.unitCost[size] = unitCost;
+        this.quantity[size] = quantity;
+        size++;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte[] getType() {
+        return type;
+    }
+
+    public double[] getUnitCost() {
+        return unitCost;
+    }
+
+    public int[] getQuantity() {
+        return quantity;
+    }
+
+    private void grow() {
+        int capacity = Math.max(DEFAULT_CAPACITY, type.length * 2);
+        type = Arrays.copyOf(type, capacity);
+        unitCost = Arrays.copyOf(unitCost, capacity);
+        quantity = Arrays.copyOf(quantity, capacity);
+    }
+}
@@ -1,5 +1,61 @@
 package org.capitalgains.model;
 
+/**
+ * Operation types, each with an explicit type code. The code is what
+ * {@link OperationBatch}, the handler registry, the binary operations file and
+ * the operation journal store, so it must never change once released; new
+ * types take the next free code, and the constants may be reordered freely.
+ * Codes are kept dense so they can index arrays.
+ */
 public enum OperationType {
-    BUY, SELL
+    BUY(0),
+    SELL(1),
+    SPLIT(2),
+    BONUS(3),
+    DIVIDEND_IN_KIND(4),
+    TRANSFER_IN(5),
+    TRANSFER_OUT(6);
+
+    private static final OperationType[] BY_CODE = byCode();
+
+    private final byte code;
+
+    OperationType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    // One more than the highest code, the size of an array indexed by code
+    public static int codeLimit() {
+        return BY_CODE.length;
+    }
+
+    public static boolean isValidCode(int code) {
+        return code >= 0 && code < BY_CODE.length && BY_CODE[code] != null;
+    }
+
+    public static OperationType fromCode(int code) {
+        if (!isValidCode(code)) {
+            throw new IllegalArgumentException("Unsupported operation type code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    private static OperationType[] byCode() {
+        int limit = 0;
+        for (OperationType operationType : values()) {
+            limit = Math.max(limit, operationType.code + 1);
+        }
+        OperationType[] byCode = new OperationType[limit];
+        for (OperationType operationType : values()) {
+            if (byCode[operationType.code] != null) {
+                throw new IllegalStateException("Duplicate operation type code " + operationType.code);
+            }
+            byCode[operationType.code] = operationType;
+        }
+        return byCode;
+    }
 }
@@ -0,0 +1,162 @@
+package org.capitalgains.persistence;
+
+import org.capitalgains.model.CapitalGainsContextSnapshot;
+import org.capitalgains.session.AccountContextStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Checkpoint file layout, big-endian:
+ * <pre>
+ * header   int magic "CGCP", short version, short record size, long sequence
+ * records  long accountId, double mediumPriceValue, int stocksQuantity, double lossValue
+ * trailer  int record count, int CRC32C of every preceding byte
+ * </pre>
+ * A checkpoint is written to a temporary file, forced to disk and then moved
+ * over the previous one, and the directory is forced after the move, so a
+ * crash leaves either the old or the new file.
+ * Loading verifies the whole file before touching the store.
+ */
+public class BinaryCheckpointRepository implements CheckpointRepository {
+
+    static final int MAGIC = 0x43474350;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 28;
+    static final int TRAILER_SIZE = 8;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path file;
+
+    public BinaryCheckpointRepository(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public void save(long sequence, AccountContextStore store) throws IOException {
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ChecksummedWriter writer = new ChecksummedWriter(channel);
+            writer.buffer.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).putLong(sequence);
+
+            int[] recordCount = {0};
+            try {
+                store.forEach((accountId, mediumPriceValue, stocksQuantity, lossValue) -> {
+                    writer.ensureRemaining(RECORD_SIZE);
+                    writer.buffer.putLong(accountId).putDouble(mediumPriceValue).putInt(stocksQuantity).putDouble(lossValue);
+                    recordCount[0]++;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            writer.ensureRemaining(TRAILER_SIZE);
+            writer.buffer.putInt(recordCount[0]);
+            writer.flush();
+            ByteBuffer checksum = ByteBuffer.allocate(Integer.BYTES).putInt((int) writer.checksum.getValue()).flip();
+            writeFully(channel, checksum);
+            channel.force(true);
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(file.toAbsolutePath().getParent());
+    }
+
+    // The rename is only durable once the directory entry is on disk
+    private static void forceDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            // Platforms such as Windows cannot open a directory, and make the rename durable themselves
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    @Override
+    public long load(AccountContextStore store) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE || (size - HEADER_SIZE - TRAILER_SIZE) % RECORD_SIZE != 0) {
+                throw new IOException("Checkpoint " + file + " has an invalid size of " + size + " bytes");
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Checkpoint " + file + " is larger than 2 GB");
+            }
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (mapped.getInt(0) != MAGIC) {
+                throw new IOException("File " + file + " is not a checkpoint");
+            }
+            if (mapped.getShort(4) != VERSION || mapped.getShort(6) != RECORD_SIZE) {
+                throw new IOException("Unsupported checkpoint version " + mapped.getShort(4) + " in " + file);
+            }
+
+            CRC32C checksum = new CRC32C();
+            checksum.update(mapped.duplicate().limit((int) (size - Integer.BYTES)));
+            if ((int) checksum.getValue() != mapped.getInt((int) (size - Integer.BYTES))) {
+                throw new IOException("Checkpoint " + file + " is corrupted: checksum mismatch");
+            }
+            int recordCount = mapped.getInt((int) (size - TRAILER_SIZE));
+            if ((long) recordCount * RECORD_SIZE != size - HEADER_SIZE - TRAILER_SIZE) {
+                throw new IOException("Checkpoint " + file + " is corrupted: record count mismatch");
+            }
+
+            for (int i = 0; i < recordCount; i++) {
+                int offset = HEADER_SIZE + i * RECORD_SIZE;
+                store.restore(mapped.getLong(offset), new CapitalGainsContextSnapshot(
+                        mapped.getDouble(offset + 8), mapped.getInt(offset + 16), mapped.getDouble(offset + 20)));
+            }
+            return mapped.getLong(8);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static final class ChecksummedWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final CRC32C checksum = new CRC32C();
+
+        ChecksummedWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void ensureRemaining(int bytes) {
+            if (buffer.remaining() < bytes) {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            checksum.update(buffer.duplicate());
+            writeFully(channel, buffer);
+            buffer.clear();
+        }
+    }
+}
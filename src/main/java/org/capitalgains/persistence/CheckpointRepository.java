@@ -0,0 +1,13 @@
+package org.capitalgains.persistence;
+
+import org.capitalgains.session.AccountContextStore;
+
+import java.io.IOException;
+
+public interface CheckpointRepository {
+    // sequence is the number of operations already reflected in the store
+    void save(long sequence, AccountContextStore store) throws IOException;
+
+    // Restores the last checkpoint into the store and returns its sequence, or 0 when there is none
+    long load(AccountContextStore store) throws IOException;
+}
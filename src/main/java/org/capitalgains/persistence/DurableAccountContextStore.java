@@ -0,0 +1,85 @@
+package org.capitalgains.persistence;
+
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.Tax;
+import org.capitalgains.session.AccountContextStore;
+import org.capitalgains.session.LoggedTax;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * {@link AccountContextStore} whose operations survive a restart. Every
+ * operation is journaled before its result is returned, and opening the store
+ * restores the last checkpoint and replays the journal written after it.
+ * Checkpoints let the journal segments they cover be deleted.
+ */
+public class DurableAccountContextStore implements Closeable {
+
+    static final String CHECKPOINT_FILE = "state.checkpoint";
+    static final String JOURNAL_DIRECTORY = "journal";
+
+    private static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    private final AccountContextStore store;
+    private final CheckpointRepository checkpointRepository;
+    private final SegmentedOperationJournal journal;
+    // Appliers share the read lock; a checkpoint takes the write lock so it matches a journal sequence
+    private final ReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+
+    public DurableAccountContextStore(Path directory) throws IOException {
+        this(new AccountContextStore(), directory, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public DurableAccountContextStore(AccountContextStore store, Path directory, long maxSegmentBytes) throws IOException {
+        this.store = store;
+        this.checkpointRepository = new BinaryCheckpointRepository(directory.resolve(CHECKPOINT_FILE));
+        this.journal = new SegmentedOperationJournal(directory.resolve(JOURNAL_DIRECTORY), maxSegmentBytes);
+
+        long checkpointSequence = checkpointRepository.load(store);
+        journal.replay(checkpointSequence, (sequence, accountId, operation) -> store.apply(accountId, operation));
+    }
+
+    public Tax apply(long accountId, Operation operation) throws IOException {
+        LoggedTax applied;
+        checkpointLock.readLock().lock();
+        try {
+            applied = store.apply(accountId, operation, journal);
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+        // Waits for this operation's record only; concurrent appliers waiting here share a single fsync
+        journal.sync(applied.getSequence());
+        return applied.getTax();
+    }
+
+    // Returns the sequence the checkpoint was taken at
+    public long checkpoint() throws IOException {
+        checkpointLock.writeLock().lock();
+        try {
+            long sequence = journal.getLastSequence();
+            journal.sync(sequence);
+            checkpointRepository.save(sequence, store);
+            journal.compact(sequence);
+            return sequence;
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    public AccountContextStore getStore() {
+        return store;
+    }
+
+    public long getLastSequence() {
+        return journal.getLastSequence();
+    }
+
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+}
@@ -0,0 +1,62 @@
+package org.capitalgains.persistence;
+
+import org.capitalgains.session.AccountContextStore;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Saves a checkpoint every {@code interval} operations. The snapshot reads the
+ * store stripe by stripe without stopping anyone, so it only matches the
+ * reported sequence if every operation is applied, and reported, by one single
+ * thread. The checkpointer binds to the first thread that reports and rejects
+ * reports from any other. With concurrent appliers, use
+ * {@link DurableAccountContextStore#checkpoint()}, which holds them off while
+ * it snapshots.
+ */
+public class PeriodicCheckpointer {
+
+    private final CheckpointRepository repository;
+    private final AccountContextStore store;
+    private final long interval;
+    private final AtomicReference<Thread> applier = new AtomicReference<>();
+    private long lastCheckpointSequence;
+
+    public PeriodicCheckpointer(CheckpointRepository repository, AccountContextStore store, long interval, long startSequence) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive: " + interval);
+        }
+        this.repository = repository;
+        this.store = store;
+        this.interval = interval;
+        this.lastCheckpointSequence = startSequence;
+    }
+
+    // Returns true when a checkpoint was written
+    public boolean operationApplied(long sequence) throws IOException {
+        checkApplier();
+        if (sequence - lastCheckpointSequence < interval) {
+            return false;
+        }
+        checkpoint(sequence);
+        return true;
+    }
+
+    public void checkpoint(long sequence) throws IOException {
+        checkApplier();
+        repository.save(sequence, store);
+        lastCheckpointSequence = sequence;
+    }
+
+    private void checkApplier() {
+        Thread current = Thread.currentThread();
+        Thread bound = applier.compareAndExchange(null, current);
+        if (bound != null && bound != current) {
+            throw new IllegalStateException("Operations are applied on " + bound.getName() + ", not on " + current.getName());
+        }
+    }
+
+    public long getLastCheckpointSequence() {
+        return lastCheckpointSequence;
+    }
+}
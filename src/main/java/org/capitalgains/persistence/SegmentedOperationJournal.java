@@ -0,0 +1,285 @@
+package org.capitalgains.persistence;
+
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
+import org.capitalgains.session.OperationLog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of applied operations, split into segment files named
+ * after the sequence of their first record. Records are fixed width:
+ * <pre>
+ * long sequence, long accountId, byte type, double unitCost, int quantity, int CRC32C of the preceding 29 bytes
+ * </pre>
+ * {@link #append} only buffers the record; {@link #sync} makes everything
+ * appended so far durable. Syncs are serialized and each one forces all
+ * records appended while the previous one was running, so concurrent callers
+ * share fsyncs (group commit). A torn record at the end of the last segment,
+ * left by a crash, is truncated when the journal is opened.
+ */
+public class SegmentedOperationJournal implements OperationLog, Closeable {
+
+    public interface RecordConsumer {
+        void accept(long sequence, long accountId, Operation operation) throws IOException;
+    }
+
+    static final int RECORD_SIZE = 33;
+
+    private static final int CHECKSUMMED_SIZE = RECORD_SIZE - Integer.BYTES;
+    private static final int BUFFERED_RECORDS = 4096;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+
+    private final Object writeLock = new Object();
+    private final Object syncLock = new Object();
+    private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * BUFFERED_RECORDS);
+    private final CRC32C checksum = new CRC32C();
+    private final AtomicLong durableSequence = new AtomicLong();
+
+    // Guarded by writeLock
+    private FileChannel channel;
+    private long segmentSize;
+    private long lastSequence;
+    private long writtenSequence;
+
+    public SegmentedOperationJournal(Path directory, long maxSegmentBytes) throws IOException {
+        if (maxSegmentBytes < RECORD_SIZE) {
+            throw new IllegalArgumentException("Segments must hold at least one record: " + maxSegmentBytes);
+        }
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        Files.createDirectories(directory);
+
+        List<Path> segments = listSegments();
+        if (segments.isEmpty()) {
+            openSegment(1);
+            lastSequence = 0;
+        } else {
+            Path lastSegment = segments.get(segments.size() - 1);
+            long firstSequence = firstSequence(lastSegment);
+            long validRecords = recoverSegment(lastSegment, firstSequence);
+            channel = FileChannel.open(lastSegment, StandardOpenOption.WRITE);
+            segmentSize = validRecords * RECORD_SIZE;
+            channel.truncate(segmentSize);
+            channel.position(segmentSize);
+            lastSequence = firstSequence + validRecords - 1;
+        }
+        writtenSequence = lastSequence;
+        durableSequence.set(lastSequence);
+    }
+
+    @Override
+    public long append(long accountId, Operation operation) throws IOException {
+        byte type = OperationBatch.typeCode(operation.getOperationType());
+        synchronized (writeLock) {
+            if (buffer.remaining() < RECORD_SIZE) {
+                drain();
+            }
+            long sequence = lastSequence + 1;
+            int start = buffer.position();
+            buffer.putLong(sequence)
+                    .putLong(accountId)
+                    .put(type)
+                    .putDouble(operation.getUnitCost())
+                    .putInt(operation.getQuantity());
+            checksum.reset();
+            checksum.update(buffer.array(), start, CHECKSUMMED_SIZE);
+            buffer.putInt((int) checksum.getValue());
+            lastSequence = sequence;
+            return sequence;
+        }
+    }
+
+    public void sync() throws IOException {
+        sync(getLastSequence());
+    }
+
+    public void sync(long sequence) throws IOException {
+        if (durableSequence.get() >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableSequence.get() >= sequence) {
+                return;
+            }
+            FileChannel current;
+            long upTo;
+            synchronized (writeLock) {
+                drain();
+                current = channel;
+                upTo = writtenSequence;
+            }
+            // Appends continue while forcing; they are picked up by the next sync
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                // The segment was rolled meanwhile, and rolling forces a segment before closing it
+            }
+            durableSequence.accumulateAndGet(upTo, Math::max);
+        }
+    }
+
+    public long getLastSequence() {
+        synchronized (writeLock) {
+            return lastSequence;
+        }
+    }
+
+    public long getDurableSequence() {
+        return durableSequence.get();
+    }
+
+    // Must run before any append, typically right after opening the journal
+    public void replay(long afterSequence, RecordConsumer consumer) throws IOException {
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            boolean lastSegment = i == segments.size() - 1;
+            if (!lastSegment && firstSequence(segments.get(i + 1)) - 1 <= afterSequence) {
+                continue;
+            }
+            replaySegment(segments.get(i), afterSequence, consumer, lastSegment);
+        }
+    }
+
+    // Deletes the segments whose records are all covered by a checkpoint at the given sequence
+    public int compact(long checkpointSequence) throws IOException {
+        synchronized (writeLock) {
+            List<Path> segments = listSegments();
+            int deleted = 0;
+            for (int i = 0; i < segments.size() - 1; i++) {
+                if (firstSequence(segments.get(i + 1)) - 1 > checkpointSequence) {
+                    break;
+                }
+                Files.delete(segments.get(i));
+                deleted++;
+            }
+            return deleted;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        synchronized (writeLock) {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segmentSize += channel.write(buffer);
+        }
+        buffer.clear();
+        writtenSequence = lastSequence;
+        if (segmentSize >= maxSegmentBytes) {
+            roll();
+        }
+    }
+
+    private void roll() throws IOException {
+        channel.force(false);
+        channel.close();
+        durableSequence.accumulateAndGet(writtenSequence, Math::max);
+        openSegment(lastSequence + 1);
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path segment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        segmentSize = 0;
+        forceDirectory();
+    }
+
+    // Makes the new segment's directory entry durable; not supported on every platform
+    private void forceDirectory() {
+        try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        } catch (IOException e) {
+            // Best effort
+        }
+    }
+
+    // Returns the number of valid records at the start of the segment
+    private long recoverSegment(Path segment, long firstSequence) throws IOException {
+        long[] validRecords = {0};
+        readSegment(segment, firstSequence, (sequence, accountId, operation) -> validRecords[0]++, true);
+        return validRecords[0];
+    }
+
+    private void replaySegment(Path segment, long afterSequence, RecordConsumer consumer, boolean lastSegment) throws IOException {
+        readSegment(segment, firstSequence(segment), (sequence, accountId, operation) -> {
+            if (sequence > afterSequence) {
+                consumer.accept(sequence, accountId, operation);
+            }
+        }, lastSegment);
+    }
+
+    private void readSegment(Path segment, long firstSequence, RecordConsumer consumer, boolean tornTailAllowed) throws IOException {
+        try (FileChannel segmentChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            CRC32C recordChecksum = new CRC32C();
+            long expectedSequence = firstSequence;
+            while (true) {
+                record.clear();
+                while (record.hasRemaining() && segmentChannel.read(record) >= 0) {
+                    // Keep reading until the record is complete or the file ends
+                }
+                if (record.position() == 0) {
+                    return;
+                }
+                recordChecksum.reset();
+                recordChecksum.update(record.array(), 0, CHECKSUMMED_SIZE);
+                boolean valid = !record.hasRemaining()
+                        && record.getInt(CHECKSUMMED_SIZE) == (int) recordChecksum.getValue()
+                        && record.getLong(0) == expectedSequence;
+                if (!valid) {
+                    if (tornTailAllowed) {
+                        return;
+                    }
+                    throw new IOException("Journal segment " + segment + " is corrupted at record " + expectedSequence);
+                }
+
+                Operation operation = new Operation();
+                operation.setOperationType(OperationBatch.operationType(record.get(16)));
+                operation.setUnitCost(record.getDouble(17));
+                operation.setQuantity(record.getInt(25));
+                consumer.accept(expectedSequence, record.getLong(8), operation);
+                expectedSequence++;
+            }
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,321 @@
+package org.capitalgains.pipeline;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandler;
+import org.capitalgains.io.OperationLineDecoder;
+import org.capitalgains.io.TaxStreamWriter;
+import org.capitalgains.metrics.MetricsRegistry;
+import org.capitalgains.metrics.Stage;
+import org.capitalgains.model.OperationBatch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs reading, parsing, calculation and writing as separate stages, each on
+ * its own thread, connected by {@link SpscRingBuffer}s, so reading and writing
+ * overlap with the CPU work:
+ * <pre>
+ * reader -+-&gt; parser 1 -+-&gt; calculator -&gt; writer
+ *         +-&gt; parser N -+
+ * </pre>
+ * The reader fills a large read-ahead buffer and deals the lines out to the
+ * parsers in turn; the calculator takes the parsed lines back in the same
+ * turn, which keeps the output in input order without any sequence numbers.
+ * Input ends at EOF or at the first empty line. A line that fails to parse or
+ * calculate travels down the pipeline in its place, so every line before it is
+ * still written before the failure is thrown.
+ */
+public class PipelineLineProcessor {
+
+    private static final int READ_AHEAD_SIZE = 1 << 20;
+    private static final int RING_CAPACITY = 64;
+
+    private final CapitalGainsTaxCalculatorHandler handler;
+    private final ObjectMapper mapper;
+    private final JsonFactory jsonFactory;
+    private final int parsers;
+    private final boolean schemaParserEnabled;
+    private final WaitStrategy waitStrategy;
+    private final MetricsRegistry metrics;
+
+    public PipelineLineProcessor(CapitalGainsTaxCalculatorHandler handler, ObjectMapper mapper, int parsers,
+                                 boolean schemaParserEnabled, WaitStrategy waitStrategy, MetricsRegistry metrics) {
+        if (parsers < 1) {
+            throw new IllegalArgumentException("At least one parser is needed: " + parsers);
+        }
+        this.handler = handler;
+        this.mapper = mapper;
+        // The writer stage decides when the output stream is flushed, and the caller closes it
+        this.jsonFactory = mapper.getFactory().copy()
+                .configure(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM, false)
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        this.parsers = parsers;
+        this.schemaParserEnabled = schemaParserEnabled;
+        this.waitStrategy = waitStrategy;
+        this.metrics = metrics;
+    }
+
+    public void process(ReadableByteChannel input, OutputStream output) throws IOException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        BooleanSupplier cancelled = () -> failure.get() != null;
+
+        List<SpscRingBuffer<LineSlot>> lineRings = new ArrayList<>(parsers);
+        List<SpscRingBuffer<BatchSlot>> batchRings = new ArrayList<>(parsers);
+        for (int i = 0; i < parsers; i++) {
+            lineRings.add(new SpscRingBuffer<>(RING_CAPACITY, LineSlot::new, waitStrategy, cancelled));
+            batchRings.add(new SpscRingBuffer<>(RING_CAPACITY, BatchSlot::new, waitStrategy, cancelled));
+        }
+        SpscRingBuffer<TaxSlot> taxRing = new SpscRingBuffer<>(RING_CAPACITY, TaxSlot::new, waitStrategy, cancelled);
+
+        List<Thread> stages = new ArrayList<>();
+        for (int i = 0; i < parsers; i++) {
+            OperationLineDecoder decoder = new OperationLineDecoder(mapper, schemaParserEnabled);
+            SpscRingBuffer<LineSlot> lines = lineRings.get(i);
+            SpscRingBuffer<BatchSlot> batches = batchRings.get(i);
+            stages.add(stage("capital-gains-parser-" + (i + 1), failure, () -> parse(decoder, lines, batches)));
+        }
+        stages.add(stage("capital-gains-calculator", failure, () -> calculate(batchRings, taxRing)));
+        stages.add(stage("capital-gains-writer", failure, () -> write(taxRing, output, failure)));
+        stages.forEach(Thread::start);
+
+        try {
+            read(input, lineRings, cancelled);
+        } catch (CancellationException e) {
+            // A later stage failed, reported below
+        } catch (IOException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+        join(stages);
+
+        Throwable cause = failure.get();
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause != null) {
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // Runs on the calling thread
+    private static void read(ReadableByteChannel input, List<SpscRingBuffer<LineSlot>> rings, BooleanSupplier cancelled) throws IOException {
+        byte[] buffer = new byte[READ_AHEAD_SIZE];
+        int start = 0;
+        int end = 0;
+        int scanned = 0;
+        boolean endOfInput = false;
+        int next = 0;
+
+        while (!cancelled.getAsBoolean()) {
+            int newline = indexOfNewline(buffer, scanned, end);
+            if (newline < 0) {
+                scanned = end;
+                if (endOfInput) {
+                    int lineEnd = stripCarriageReturn(buffer, start, end);
+                    if (lineEnd > start) {
+                        offer(rings.get(next), buffer, start, lineEnd);
+                        next = (next + 1) % rings.size();
+                    }
+                    break;
+                }
+                if (start > 0) {
+                    System.arraycopy(buffer, start, buffer, 0, end - start);
+                    end -= start;
+                    scanned -= start;
+                    start = 0;
+                } else if (end == buffer.length) {
+                    // A single line longer than the read-ahead buffer
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int read = input.read(ByteBuffer.wrap(buffer, end, buffer.length - end));
+                if (read < 0) {
+                    endOfInput = true;
+                } else {
+                    end += read;
+                }
+                continue;
+            }
+
+            int lineEnd = stripCarriageReturn(buffer, start, newline);
+            if (lineEnd == start) {
+                break;
+            }
+            offer(rings.get(next), buffer, start, lineEnd);
+            next = (next + 1) % rings.size();
+            start = newline + 1;
+            scanned = start;
+        }
+
+        // One end marker per parser; the calculator stops at the one that follows the last line
+        for (SpscRingBuffer<LineSlot> ring : rings) {
+            ring.claim().last = true;
+            ring.publish();
+        }
+    }
+
+    private static int indexOfNewline(byte[] buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int stripCarriageReturn(byte[] buffer, int start, int end) {
+        return end > start && buffer[end - 1] == '\r' ? end - 1 : end;
+    }
+
+    private static void offer(SpscRingBuffer<LineSlot> ring, byte[] buffer, int start, int end) {
+        LineSlot slot = ring.claim();
+        int length = end - start;
+        if (slot.bytes.length < length) {
+            slot.bytes = new byte[Math.max(length, slot.bytes.length * 2)];
+        }
+        System.arraycopy(buffer, start, slot.bytes, 0, length);
+        slot.length = length;
+        slot.last = false;
+        ring.publish();
+    }
+
+    private void parse(OperationLineDecoder decoder, SpscRingBuffer<LineSlot> lines, SpscRingBuffer<BatchSlot> batches) {
+        while (true) {
+            LineSlot line = lines.take();
+            BatchSlot batch = batches.claim();
+            batch.last = line.last;
+            batch.failure = null;
+            if (!line.last) {
+                long time = metrics.startTime();
+                try {
+                    decoder.decode(ByteBuffer.wrap(line.bytes, 0, line.length), batch.batch);
+                    metrics.record(Stage.PARSE, time);
+                } catch (IOException | RuntimeException e) {
+                    batch.failure = e;
+                }
+            }
+            batches.publish();
+            lines.release();
+            if (batch.last) {
+                return;
+            }
+        }
+    }
+
+    private void calculate(List<SpscRingBuffer<BatchSlot>> batchRings, SpscRingBuffer<TaxSlot> taxRing) {
+        for (int next = 0; ; next = (next + 1) % batchRings.size()) {
+            SpscRingBuffer<BatchSlot> batches = batchRings.get(next);
+            BatchSlot batch = batches.take();
+            TaxSlot taxes = taxRing.claim();
+            taxes.last = batch.last;
+            taxes.failure = batch.failure;
+            if (!batch.last && batch.failure == null) {
+                OperationBatch operations = batch.batch;
+                if (taxes.taxes.length < operations.size()) {
+                    taxes.taxes = new double[operations.getType().length];
+                }
+                long time = metrics.startTime();
+                try {
+                    handler.calculateTaxes(operations, taxes.taxes);
+                    taxes.count = operations.size();
+                    metrics.record(Stage.CALCULATE, time);
+                } catch (RuntimeException e) {
+                    taxes.failure = e;
+                }
+            }
+            taxRing.publish();
+            batches.release();
+            if (batch.last) {
+                return;
+            }
+        }
+    }
+
+    private void write(SpscRingBuffer<TaxSlot> taxRing, OutputStream output, AtomicReference<Throwable> failure) {
+        try (TaxStreamWriter writer = new TaxStreamWriter(jsonFactory, output)) {
+            while (true) {
+                TaxSlot taxes = taxRing.take();
+                if (taxes.last) {
+                    break;
+                }
+                if (taxes.failure != null) {
+                    failure.compareAndSet(null, taxes.failure);
+                    break;
+                }
+                long time = metrics.startTime();
+                writer.writeLine(taxes.taxes, taxes.count);
+                metrics.record(Stage.WRITE, time);
+                metrics.lineProcessed(taxes.count);
+                taxRing.release();
+                // Written out whenever the writer catches up, so interactive input is answered line by line
+                if (taxRing.isEmpty()) {
+                    output.flush();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Thread stage(String name, AtomicReference<Throwable> failure, Runnable body) {
+        Thread thread = new Thread(() -> {
+            try {
+                body.run();
+            } catch (CancellationException e) {
+                // Another stage failed first
+            } catch (UncheckedIOException e) {
+                failure.compareAndSet(null, e.getCause());
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+            }
+        }, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void join(List<Thread> stages) throws IOException {
+        try {
+            for (Thread stage : stages) {
+                stage.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the pipeline", e);
+        }
+    }
+
+    static final class LineSlot {
+        byte[] bytes = new byte[256];
+        int length;
+        boolean last;
+    }
+
+    static final class BatchSlot {
+        final OperationBatch batch = new OperationBatch();
+        Exception failure;
+        boolean last;
+    }
+
+    static final class TaxSlot {
+        double[] taxes = new double[16];
+        int count;
+        Exception failure;
+        boolean last;
+    }
+}
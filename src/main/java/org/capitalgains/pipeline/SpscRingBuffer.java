@@ -0,0 +1,98 @@
+package org.capitalgains.pipeline;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded queue between exactly one producer thread and one consumer thread
+ * over preallocated, reusable slots. The producer {@link #claim()}s the next
+ * free slot, fills it in place and {@link #publish()}es it; the consumer
+ * {@link #take()}s it and {@link #release()}s it once done, which hands the
+ * slot back to the producer. Nothing is allocated after construction.
+ * <p>
+ * Waiting follows the {@link WaitStrategy} and throws
+ * {@link CancellationException} once the pipeline is cancelled, so a stage
+ * never waits forever on a stage that has failed.
+ */
+class SpscRingBuffer<T> {
+
+    // Head and tail sit 128 bytes apart in one array so the two threads never write the same cache line
+    private static final int PADDING = 16;
+    private static final int HEAD = PADDING;
+    private static final int TAIL = 2 * PADDING;
+
+    private final Object[] slots;
+    private final int mask;
+    private final AtomicLongArray sequences = new AtomicLongArray(3 * PADDING);
+    private final WaitStrategy waitStrategy;
+    private final BooleanSupplier cancelled;
+
+    // Producer side
+    private long tail;
+    private long cachedHead;
+
+    // Consumer side
+    private long head;
+    private long cachedTail;
+
+    SpscRingBuffer(int capacity, Supplier<T> slotFactory, WaitStrategy waitStrategy, BooleanSupplier cancelled) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.slots = new Object[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = slotFactory.get();
+        }
+        this.mask = capacity - 1;
+        this.waitStrategy = waitStrategy;
+        this.cancelled = cancelled;
+    }
+
+    @SuppressWarnings("unchecked")
+    T claim() {
+        while (tail - cachedHead >= slots.length) {
+            cachedHead = sequences.getAcquire(HEAD);
+            if (tail - cachedHead >= slots.length) {
+                await();
+            }
+        }
+        return (T) slots[(int) tail & mask];
+    }
+
+    void publish() {
+        sequences.setRelease(TAIL, ++tail);
+    }
+
+    @SuppressWarnings("unchecked")
+    T take() {
+        while (head >= cachedTail) {
+            cachedTail = sequences.getAcquire(TAIL);
+            if (head >= cachedTail) {
+                await();
+            }
+        }
+        return (T) slots[(int) head & mask];
+    }
+
+    void release() {
+        sequences.setRelease(HEAD, ++head);
+    }
+
+    // Consumer side: whether take() would have to wait
+    boolean isEmpty() {
+        return head >= cachedTail && head >= (cachedTail = sequences.getAcquire(TAIL));
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    private void await() {
+        if (cancelled.getAsBoolean()) {
+            throw new CancellationException();
+        }
+        waitStrategy.idle();
+    }
+}
@@ -0,0 +1,49 @@
+package org.capitalgains.pipeline;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * What a pipeline stage does while its ring buffer is empty or full. Spinning
+ * reacts fastest but keeps a core busy per waiting stage, so it only pays off
+ * with a free core for every stage; parking gives the core away at the cost
+ * of tens of microseconds per wake-up.
+ */
+public enum WaitStrategy {
+    BUSY_SPIN("busy-spin") {
+        @Override
+        void idle() {
+            Thread.onSpinWait();
+        }
+    },
+    YIELD("yield") {
+        @Override
+        void idle() {
+            Thread.yield();
+        }
+    },
+    PARK("park") {
+        @Override
+        void idle() {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    };
+
+    private static final long PARK_NANOS = 10_000;
+
+    private final String optionName;
+
+    WaitStrategy(String optionName) {
+        this.optionName = optionName;
+    }
+
+    abstract void idle();
+
+    public static WaitStrategy fromOptionName(String optionName) {
+        for (WaitStrategy strategy : values()) {
+            if (strategy.optionName.equals(optionName)) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown wait strategy: " + optionName);
+    }
+}
@@ -0,0 +1,163 @@
+package org.capitalgains.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.capitalgains.handler.ArithmeticEngine;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Keeps one warmed-up JVM calculating for the command line. Listens on a Unix
+ * domain socket; each connection is one {@code capitalgains} invocation run by
+ * {@link DaemonClient}. The client sends a {@link #HELLO} header line with the
+ * arithmetic engine name, then its stdin unchanged. The daemon answers every
+ * line as the in-process program would, up to EOF or the first empty line.
+ * If a line cannot be calculated, the daemon sends {@link #ERROR} followed by
+ * the message and closes the connection.
+ */
+public class CapitalGainsDaemon implements AutoCloseable {
+
+    public static final String HELLO = "CAPITALGAINS/1";
+    public static final char ERROR = '!';
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private final Map<ArithmeticEngine, JsonLineCalculator> calculators = new EnumMap<>(ArithmeticEngine.class);
+    private final Path socketPath;
+    private final ExecutorService executor;
+    private ServerSocketChannel serverChannel;
+    private Thread acceptor;
+
+    public CapitalGainsDaemon(ObjectMapper mapper, Path socketPath) {
+        for (ArithmeticEngine engine : ArithmeticEngine.values()) {
+            calculators.put(engine, new JsonLineCalculator(engine.createHandler(), mapper));
+        }
+        this.socketPath = socketPath;
+        this.executor = RequestExecutors.newPerRequestExecutor();
+    }
+
+    public void start() throws IOException {
+        removeStaleSocket(socketPath);
+        for (JsonLineCalculator calculator : calculators.values()) {
+            calculator.warmUp();
+        }
+        serverChannel = bind(socketPath);
+        acceptor = new Thread(this::acceptConnections, "capital-gains-daemon");
+        acceptor.start();
+    }
+
+    public Path getSocketPath() {
+        return socketPath;
+    }
+
+    // A socket file nobody listens on is left behind by a daemon that was killed
+    private static void removeStaleSocket(Path socketPath) throws IOException {
+        if (!Files.exists(socketPath)) {
+            return;
+        }
+        try (SocketChannel probe = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            probe.connect(UnixDomainSocketAddress.of(socketPath));
+        } catch (IOException e) {
+            Files.delete(socketPath);
+            return;
+        }
+        throw new IllegalStateException("A daemon is already listening on " + socketPath);
+    }
+
+    private static ServerSocketChannel bind(Path socketPath) throws IOException {
+        Path directory = socketPath.toAbsolutePath().getParent();
+        if (!Files.exists(directory)) {
+            createPrivateDirectory(directory);
+        }
+        ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        channel.bind(UnixDomainSocketAddress.of(socketPath));
+        try {
+            Files.setPosixFilePermissions(socketPath, PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system, access is left to the directory
+        }
+        return channel;
+    }
+
+    // Nobody else can reach the socket between bind and chmod, or replace it afterwards
+    private static void createPrivateDirectory(Path directory) throws IOException {
+        try {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } catch (UnsupportedOperationException e) {
+            Files.createDirectories(directory);
+        }
+    }
+
+    private void acceptConnections() {
+        try {
+            while (true) {
+                SocketChannel connection = serverChannel.accept();
+                executor.execute(() -> serve(connection));
+            }
+        } catch (ClosedChannelException e) {
+            // Closed by close()
+        } catch (IOException e) {
+            System.err.println("Daemon stopped accepting connections: " + e.getMessage());
+        }
+    }
+
+    private void serve(SocketChannel connection) {
+        // One thread per connection, so the channel streams never read and write concurrently
+        try (connection;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(connection), StandardCharsets.UTF_8));
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(connection))) {
+            JsonLineCalculator calculator = calculators.get(readEngine(reader.readLine()));
+            String line;
+            try {
+                while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                    out.write(calculator.calculate(line));
+                    out.write(LINE_SEPARATOR);
+                    // Answers interactive input line by line, and piped input a buffer at a time
+                    if (!reader.ready()) {
+                        out.flush();
+                    }
+                }
+            } catch (JsonProcessingException | RuntimeException e) {
+                // Any failure of a line, including those thrown by the handlers, is reported like the in-process program does
+                out.write(ERROR);
+                String message = e.getMessage() != null ? e.getMessage() : e.toString();
+                out.write(message.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // The client went away or is not speaking the protocol, nothing to answer
+        }
+    }
+
+    private static ArithmeticEngine readEngine(String hello) {
+        if (hello == null || !hello.startsWith(HELLO + ' ')) {
+            throw new IllegalArgumentException("Not a capital gains client");
+        }
+        return ArithmeticEngine.fromOptionName(hello.substring(HELLO.length() + 1));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (serverChannel != null) {
+            serverChannel.close();
+            Files.deleteIfExists(socketPath);
+        }
+        executor.shutdownNow();
+    }
+}
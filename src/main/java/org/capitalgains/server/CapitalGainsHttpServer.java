@@ -0,0 +1,142 @@
+package org.capitalgains.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Serves tax calculations over HTTP so callers do not pay JVM startup per
+ * request. {@code POST /taxes} takes one operation array and answers with its
+ * tax array. With {@code Content-Type: application/x-ndjson} the body holds
+ * one array per line, each an independent simulation as on the command line,
+ * and the answer streams one tax array per line. All requests share one
+ * handler and one Jackson reader and writer, which are warmed up before the
+ * server accepts connections.
+ */
+public class CapitalGainsHttpServer implements AutoCloseable {
+
+    public static final String PATH = "/taxes";
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final String JSON = "application/json";
+    private static final byte[] NEWLINE = {'\n'};
+
+    static {
+        // The JDK server writes headers and body separately; with Nagle on, every
+        // response waits out the client's delayed ACK (about 40 ms)
+        System.getProperties().putIfAbsent("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final JsonLineCalculator calculator;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public CapitalGainsHttpServer(CapitalGainsTaxCalculatorHandler handler, ObjectMapper mapper, InetSocketAddress address) throws IOException {
+        this.calculator = new JsonLineCalculator(handler, mapper);
+        this.executor = RequestExecutors.newPerRequestExecutor();
+        this.server = HttpServer.create(address, 0);
+        this.server.createContext(PATH, this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    public void start() throws IOException {
+        calculator.warmUp();
+        server.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public boolean usesVirtualThreads() {
+        return RequestExecutors.isVirtual(executor);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendError(exchange, 405, "Only POST is supported");
+                return;
+            }
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            try {
+                if (contentType != null && contentType.startsWith(NDJSON)) {
+                    handleBatch(exchange);
+                } else {
+                    handleSingle(exchange);
+                }
+            } catch (JsonProcessingException | RuntimeException e) {
+                // Malformed JSON or an operation the handlers cannot calculate, such as one without a type
+                sendError(exchange, 400, message(e));
+            } catch (IOException e) {
+                sendError(exchange, 500, message(e));
+            }
+        }
+    }
+
+    private void handleSingle(HttpExchange exchange) throws IOException {
+        byte[] response;
+        try (InputStream body = exchange.getRequestBody()) {
+            response = calculator.calculate(body);
+        }
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    // Every line is validated before anything is sent, so a bad line fails the whole request with 400
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        List<byte[]> responses = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    responses.add(calculator.calculate(line));
+                }
+            }
+        }
+        exchange.getResponseHeaders().set("Content-Type", NDJSON);
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (byte[] response : responses) {
+                out.write(response);
+                out.write(NEWLINE);
+            }
+        }
+    }
+
+    private static String message(Exception e) {
+        return e.getMessage() != null ? e.getMessage() : e.toString();
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] response = message.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,147 @@
+package org.capitalgains.server;
+
+import jdk.net.ExtendedSocketOptions;
+import org.capitalgains.handler.ArithmeticEngine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+
+/**
+ * Thin command line client of {@link CapitalGainsDaemon}: streams stdin to the
+ * daemon and its answers to stdout. Loads no Jackson or calculation classes,
+ * so an invocation costs little more than a bare JVM start. Nothing is sent
+ * unless the process listening on the socket runs as the current user.
+ */
+public class DaemonClient {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path socketPath;
+
+    public DaemonClient(Path socketPath) {
+        this.socketPath = socketPath;
+    }
+
+    // In the per-user runtime directory, or else in a private directory the daemon creates in the temporary directory
+    public static Path defaultSocketPath() {
+        String runtimeDirectory = System.getenv("XDG_RUNTIME_DIR");
+        Path directory = runtimeDirectory != null && !runtimeDirectory.isEmpty()
+                ? Path.of(runtimeDirectory)
+                : Path.of(System.getProperty("java.io.tmpdir"), "capitalgains-" + System.getProperty("user.name"));
+        return directory.resolve("capitalgains.sock");
+    }
+
+    /**
+     * Runs the whole input through the daemon. Returns {@code false}, without
+     * having read any input, if no daemon is listening, so that the caller can
+     * calculate in process instead. Throws {@link IOException} if the socket
+     * belongs to another user.
+     */
+    public boolean run(ArithmeticEngine engine, InputStream in, OutputStream out) throws IOException {
+        SocketChannel channel = connect();
+        if (channel == null) {
+            return false;
+        }
+        try (channel) {
+            verifyOwner(channel);
+            write(channel, (CapitalGainsDaemon.HELLO + ' ' + engine.getOptionName() + '\n').getBytes(StandardCharsets.US_ASCII));
+            Thread sender = new Thread(() -> send(in, channel), "capital-gains-daemon-client");
+            // The daemon stops at the first empty line while stdin may still be open
+            sender.setDaemon(true);
+            sender.start();
+            receive(channel, out);
+        }
+        return true;
+    }
+
+    private SocketChannel connect() {
+        if (!Files.exists(socketPath)) {
+            return null;
+        }
+        try {
+            return SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+        } catch (IOException e) {
+            // Left behind by a daemon that is no longer running
+            return null;
+        }
+    }
+
+    // The peer credentials name the process that bound the socket, the file owner is the fallback where they are not available
+    private void verifyOwner(SocketChannel channel) throws IOException {
+        String owner = channel.supportedOptions().contains(ExtendedSocketOptions.SO_PEERCRED)
+                ? channel.getOption(ExtendedSocketOptions.SO_PEERCRED).user().getName()
+                : Files.getOwner(socketPath, LinkOption.NOFOLLOW_LINKS).getName();
+        String user = System.getProperty("user.name");
+        if (!owner.equals(user)) {
+            throw new IOException("Daemon socket " + socketPath + " belongs to " + owner + ", not to " + user);
+        }
+    }
+
+    private static void send(InputStream in, SocketChannel channel) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                write(channel, buffer, read);
+            }
+            channel.shutdownOutput();
+        } catch (IOException e) {
+            // The daemon has answered and closed the connection before the end of the input
+        }
+    }
+
+    // Reads the channel directly: stream adapters of a socket channel hold a lock that blocks the sender meanwhile
+    private static void receive(SocketChannel channel, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                byte[] single = new byte[1];
+                return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                return channel.read(ByteBuffer.wrap(bytes, offset, length));
+            }
+        }, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isEmpty() && line.charAt(0) == CapitalGainsDaemon.ERROR) {
+                StringBuilder message = new StringBuilder(line.substring(1));
+                while ((line = reader.readLine()) != null) {
+                    message.append(System.lineSeparator()).append(line);
+                }
+                out.flush();
+                throw new IOException(message.toString());
+            }
+            out.write(line.getBytes(StandardCharsets.UTF_8));
+            out.write(System.lineSeparator().getBytes(StandardCharsets.US_ASCII));
+            if (!reader.ready()) {
+                out.flush();
+            }
+        }
+        out.flush();
+    }
+
+    private static void write(SocketChannel channel, byte[] bytes) throws IOException {
+        write(channel, bytes, bytes.length);
+    }
+
+    private static void write(SocketChannel channel, byte[] bytes, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
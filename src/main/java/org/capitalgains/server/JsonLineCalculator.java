@@ -0,0 +1,53 @@
+package org.capitalgains.server;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandler;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.Tax;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Calculates one operation array given as JSON text into its tax array as
+ * JSON bytes, with a Jackson reader and writer built once and shared by every
+ * caller, as the servers need.
+ */
+final class JsonLineCalculator {
+
+    private static final int WARM_UP_ITERATIONS = 20_000;
+    private static final String WARM_UP_LINE = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":10000},"
+            + "{\"operation\":\"sell\", \"unit-cost\":5.00, \"quantity\":5000},"
+            + "{\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\":3000}]";
+
+    private final CapitalGainsTaxCalculatorHandler handler;
+    private final ObjectReader operationsReader;
+    private final ObjectWriter taxesWriter;
+
+    JsonLineCalculator(CapitalGainsTaxCalculatorHandler handler, ObjectMapper mapper) {
+        this.handler = handler;
+        this.operationsReader = mapper.readerFor(new TypeReference<List<Operation>>() {});
+        this.taxesWriter = mapper.writerFor(new TypeReference<List<Tax>>() {});
+    }
+
+    byte[] calculate(String line) throws IOException {
+        List<Operation> operations = operationsReader.readValue(line);
+        return taxesWriter.writeValueAsBytes(handler.calculateTaxes(operations));
+    }
+
+    byte[] calculate(InputStream body) throws IOException {
+        List<Operation> operations = operationsReader.readValue(body);
+        return taxesWriter.writeValueAsBytes(handler.calculateTaxes(operations));
+    }
+
+    // Runs the request path on a fixed line so the first real requests hit compiled code
+    void warmUp() throws IOException {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            calculate(WARM_UP_LINE);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.capitalgains.server;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop load generator for {@link CapitalGainsHttpServer}: each of
+ * {@code --concurrency} workers sends its next request as soon as the previous
+ * one is answered, until {@code --requests} have been sent. Warm-up requests
+ * are sent first and left out of the report.
+ * <pre>
+ * capitalgains-loadgen --url http://localhost:8080/taxes --requests 20000 --concurrency 16 [--body file] [--ndjson]
+ * </pre>
+ */
+public class LoadGenerator {
+
+    private static final String DEFAULT_BODY = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":10000},"
+            + "{\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\":5000},"
+            + "{\"operation\":\"sell\", \"unit-cost\":5.00, \"quantity\":5000}]";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final HttpRequest request;
+
+    public LoadGenerator(URI uri, String body, boolean ndjson) {
+        this.request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", ndjson ? CapitalGainsHttpServer.NDJSON : "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create("http://localhost:8080" + CapitalGainsHttpServer.PATH);
+        int requests = 20_000;
+        int warmUpRequests = 2_000;
+        int concurrency = 16;
+        String body = DEFAULT_BODY;
+        boolean ndjson = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url":
+                    uri = URI.create(args[++i]);
+                    break;
+                case "--requests":
+                    requests = Integer.parseInt(args[++i]);
+                    break;
+                case "--warmup":
+                    warmUpRequests = Integer.parseInt(args[++i]);
+                    break;
+                case "--concurrency":
+                    concurrency = Integer.parseInt(args[++i]);
+                    break;
+                case "--body":
+                    body = Files.readString(Path.of(args[++i]));
+                    break;
+                case "--ndjson":
+                    ndjson = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        LoadGenerator generator = new LoadGenerator(uri, body, ndjson);
+        generator.run(warmUpRequests, concurrency);
+        generator.run(requests, concurrency).print(System.out);
+    }
+
+    public Report run(int requests, int concurrency) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>(concurrency);
+
+        long start = System.nanoTime();
+        for (int w = 0; w < concurrency; w++) {
+            Thread worker = new Thread(() -> {
+                int index;
+                while ((index = next.getAndIncrement()) < requests) {
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    latencies[index] = System.nanoTime() - sent;
+                }
+            }, "capital-gains-load-" + w);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return new Report(latencies, errors.get(), System.nanoTime() - start);
+    }
+
+    public static final class Report {
+        private final long[] sortedLatencies;
+        private final int errors;
+        private final long elapsedNanos;
+
+        Report(long[] latencies, int errors, long elapsedNanos) {
+            this.sortedLatencies = latencies.clone();
+            Arrays.sort(this.sortedLatencies);
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getRequests() {
+            return sortedLatencies.length;
+        }
+
+        public int getErrors() {
+            return errors;
+        }
+
+        public double getThroughput() {
+            return sortedLatencies.length / (elapsedNanos / 1e9);
+        }
+
+        public long getPercentileNanos(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile * sortedLatencies.length);
+            return sortedLatencies[Math.max(0, rank - 1)];
+        }
+
+        public void print(PrintStream out) {
+            out.printf("requests=%d errors=%d elapsed=%.2fs throughput=%.0f req/s%n",
+                    getRequests(), errors, elapsedNanos / 1e9, getThroughput());
+            out.printf("latency p50=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms%n",
+                    millis(getPercentileNanos(0.50)), millis(getPercentileNanos(0.99)),
+                    millis(getPercentileNanos(0.999)), millis(getPercentileNanos(1.0)));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.capitalgains.service;
+
+import static org.capitalgains.service.FixedPointMoney.divideRoundHalfUp;
+import static org.capitalgains.service.FixedPointMoney.multiply;
+import static org.capitalgains.service.FixedPointMoney.toCents;
+import static org.capitalgains.service.FixedPointMoney.toDouble;
+
+public class FixedPointMediumPriceCalculator implements MediumPriceCalculator {
+    @Override
+    public double calculate(double buyPrice, double currentMediumPriceValue, int currentStocksQuantity, int stocksBoughtQuantity) {
+        return toDouble(calculateCents(toCents(buyPrice), toCents(currentMediumPriceValue), currentStocksQuantity, stocksBoughtQuantity));
+    }
+
+    public long calculateCents(long buyPriceCents, long currentMediumPriceCents, int currentStocksQuantity, int stocksBoughtQuantity) {
+        long totalQuantity = (long) currentStocksQuantity + stocksBoughtQuantity;
+        if (totalQuantity == 0) {
+            return currentMediumPriceCents;
+        }
+        long totalCost = Math.addExact(
+                multiply(currentMediumPriceCents, currentStocksQuantity),
+                multiply(buyPriceCents, stocksBoughtQuantity));
+        return divideRoundHalfUp(totalCost, totalQuantity);
+    }
+}
@@ -0,0 +1,40 @@
+package org.capitalgains.service;
+
+/**
+ * Money as {@code long} cents. Rounding rules of the fixed point engine:
+ * <ul>
+ *     <li>prices read from input are rounded to the nearest cent, half up</li>
+ *     <li>weighted average prices are rounded to the nearest cent, half up</li>
+ *     <li>losses are exact, as they are cents multiplied by whole quantities</li>
+ *     <li>taxes are rounded to the nearest cent, half up</li>
+ * </ul>
+ * Half up means half away from zero, the same as {@code RoundingMode.HALF_UP}.
+ * Overflow raises {@link ArithmeticException} instead of wrapping.
+ */
+public final class FixedPointMoney {
+    public static final long SCALE = 100;
+
+    private FixedPointMoney() {
+    }
+
+    public static long toCents(double value) {
+        return Math.round(value * SCALE);
+    }
+
+    public static double toDouble(long cents) {
+        return (double) cents / SCALE;
+    }
+
+    public static long multiply(long cents, long factor) {
+        return Math.multiplyExact(cents, factor);
+    }
+
+    public static long divideRoundHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += Long.signum(dividend) * Long.signum(divisor);
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,50 @@
+package org.capitalgains.service;
+
+import static org.capitalgains.service.FixedPointMoney.divideRoundHalfUp;
+import static org.capitalgains.service.FixedPointMoney.multiply;
+import static org.capitalgains.service.FixedPointMoney.toCents;
+import static org.capitalgains.service.FixedPointMoney.toDouble;
+
+public class FixedPointTaxCalculator implements TaxCalculator {
+
+    private static final long BASIS_POINTS = 10_000;
+
+    private final long minimumCostCents;
+
+    private final long taxRateBasisPoints;
+
+    public FixedPointTaxCalculator() {
+        this(0.2, 20000);
+    }
+
+    public FixedPointTaxCalculator(double taxRate, double minimumCost) {
+        this.taxRateBasisPoints = Math.round(taxRate * BASIS_POINTS);
+        this.minimumCostCents = toCents(minimumCost);
+    }
+
+    @Override
+    public double calculateTax(double price, double mediumPrice, double lossValue, int quantity) {
+        return toDouble(calculateTaxCents(toCents(price), toCents(mediumPrice), toCents(lossValue), quantity));
+    }
+
+    public long calculateTaxCents(long priceCents, long mediumPriceCents, long lossCents, int quantity) {
+        long totalCost = multiply(priceCents, quantity);
+
+        if (totalCost < minimumCostCents || priceCents < mediumPriceCents) {
+            return 0;
+        }
+
+        long profit = multiply(priceCents - mediumPriceCents, quantity);
+        long taxBasis = profit - lossCents;
+        return taxBasis > 0 ? divideRoundHalfUp(multiply(taxBasis, taxRateBasisPoints), BASIS_POINTS) : 0;
+    }
+
+    // Loss carried forward after selling, same rule as SellOperationHandlerImpl
+    public long carryLossCents(long priceCents, long mediumPriceCents, long lossCents, int quantity) {
+        if (priceCents < mediumPriceCents) {
+            return Math.addExact(lossCents, multiply(mediumPriceCents - priceCents, quantity));
+        }
+        long profit = multiply(priceCents - mediumPriceCents, quantity);
+        return lossCents < profit ? 0 : lossCents - profit;
+    }
+}
@@ -2,4 +2,18 @@ package org.capitalgains.service;
 
 public interface TaxCalculator {
     double calculateTax(double price, double mediumPrice, double lossValue, int quantity);
+
+    // Independent sells: taxes[i] is calculated from the i-th element of every input array
+    default void calculateTaxes(double[] prices, double[] mediumPrices, double[] lossValues, int[] quantities, double[] taxes, int length) {
+        for (int i = 0; i < length; i++) {
+            taxes[i] = calculateTax(prices[i], mediumPrices[i], lossValues[i], quantities[i]);
+        }
+    }
+
+    // Candidate sells against the same position: taxes[i] is calculated from prices[i] and quantities[i]
+    default void calculateTaxes(double[] prices, double mediumPrice, double lossValue, int[] quantities, double[] taxes, int length) {
+        for (int i = 0; i < length; i++) {
+            taxes[i] = calculateTax(prices[i], mediumPrice, lossValue, quantities[i]);
+        }
+    }
 }
@@ -0,0 +1,73 @@
+package org.capitalgains.service;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Selects how independent sells are taxed in bulk. The kernel in use can be
+ * picked at runtime with {@code -Dcapitalgains.taxKernel=scalar|vector} and
+ * defaults to {@link #SCALAR}; {@link #VECTOR} also needs
+ * {@code --add-modules jdk.incubator.vector} and silently falls back to
+ * {@link #SCALAR} without it. Both give identical results.
+ */
+public enum TaxKernel {
+    SCALAR("scalar") {
+        @Override
+        public TaxCalculator createTaxCalculator(double taxRate, double minimumCost) {
+            return new TaxCalculatorImpl(taxRate, minimumCost);
+        }
+    },
+    VECTOR("vector") {
+        @Override
+        public TaxCalculator createTaxCalculator(double taxRate, double minimumCost) {
+            if (!isVectorSupported()) {
+                return SCALAR.createTaxCalculator(taxRate, minimumCost);
+            }
+            // Loaded reflectively so nothing links against the incubator module unless it is present
+            try {
+                return (TaxCalculator) Class.forName(VECTOR_CALCULATOR_CLASS)
+                        .getDeclaredConstructor(double.class, double.class)
+                        .newInstance(taxRate, minimumCost);
+            } catch (ClassNotFoundException | NoSuchMethodException | InstantiationException
+                     | IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Cannot create the vector tax calculator", e);
+            } catch (LinkageError e) {
+                // Hardware without a usable vector shape
+                return SCALAR.createTaxCalculator(taxRate, minimumCost);
+            }
+        }
+    };
+
+    public static final String PROPERTY = "capitalgains.taxKernel";
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_CALCULATOR_CLASS = "org.capitalgains.service.VectorTaxCalculator";
+
+    private final String optionName;
+
+    TaxKernel(String optionName) {
+        this.optionName = optionName;
+    }
+
+    public abstract TaxCalculator createTaxCalculator(double taxRate, double minimumCost);
+
+    public TaxCalculator createTaxCalculator() {
+        return createTaxCalculator(0.2, 20000);
+    }
+
+    public static boolean isVectorSupported() {
+        return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+    }
+
+    public static TaxKernel configured() {
+        return fromOptionName(System.getProperty(PROPERTY, SCALAR.optionName));
+    }
+
+    public static TaxKernel fromOptionName(String optionName) {
+        for (TaxKernel kernel : values()) {
+            if (kernel.optionName.equals(optionName)) {
+                return kernel;
+            }
+        }
+        throw new IllegalArgumentException("Unknown tax kernel: " + optionName);
+    }
+}
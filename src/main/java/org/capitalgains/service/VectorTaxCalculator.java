@@ -0,0 +1,84 @@
+package org.capitalgains.service;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link TaxCalculatorImpl} rules applied to whole vectors of independent
+ * sells: the threshold, loss and positive-basis checks become lane masks
+ * instead of branches. Every lane performs the same IEEE operations in the
+ * same order as the scalar code, so results are bit-for-bit identical. Needs
+ * the {@code jdk.incubator.vector} module at runtime; create it through
+ * {@link TaxKernel} so that a JVM without the module falls back to scalar.
+ */
+class VectorTaxCalculator implements TaxCalculator {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    // Same lane count as DOUBLES, so quantities widen lane for lane
+    private static final VectorSpecies<Integer> INTS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+
+    private final TaxCalculatorImpl scalar;
+    private final double taxRate;
+    private final double minimumCost;
+
+    VectorTaxCalculator(double taxRate, double minimumCost) {
+        this.scalar = new TaxCalculatorImpl(taxRate, minimumCost);
+        this.taxRate = taxRate;
+        this.minimumCost = minimumCost;
+    }
+
+    @Override
+    public double calculateTax(double price, double mediumPrice, double lossValue, int quantity) {
+        return scalar.calculateTax(price, mediumPrice, lossValue, quantity);
+    }
+
+    @Override
+    public void calculateTaxes(double[] prices, double[] mediumPrices, double[] lossValues, int[] quantities, double[] taxes, int length) {
+        int upperBound = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < upperBound; i += DOUBLES.length()) {
+            calculate(DoubleVector.fromArray(DOUBLES, prices, i),
+                    DoubleVector.fromArray(DOUBLES, mediumPrices, i),
+                    DoubleVector.fromArray(DOUBLES, lossValues, i),
+                    quantities(quantities, i))
+                    .intoArray(taxes, i);
+        }
+        for (; i < length; i++) {
+            taxes[i] = scalar.calculateTax(prices[i], mediumPrices[i], lossValues[i], quantities[i]);
+        }
+    }
+
+    @Override
+    public void calculateTaxes(double[] prices, double mediumPrice, double lossValue, int[] quantities, double[] taxes, int length) {
+        DoubleVector mediumPrices = DoubleVector.broadcast(DOUBLES, mediumPrice);
+        DoubleVector lossValues = DoubleVector.broadcast(DOUBLES, lossValue);
+        int upperBound = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < upperBound; i += DOUBLES.length()) {
+            calculate(DoubleVector.fromArray(DOUBLES, prices, i), mediumPrices, lossValues, quantities(quantities, i))
+                    .intoArray(taxes, i);
+        }
+        for (; i < length; i++) {
+            taxes[i] = scalar.calculateTax(prices[i], mediumPrice, lossValue, quantities[i]);
+        }
+    }
+
+    private DoubleVector calculate(DoubleVector price, DoubleVector mediumPrice, DoubleVector lossValue, DoubleVector quantity) {
+        // Negated comparisons keep the scalar behaviour for NaN inputs
+        VectorMask<Double> taxable = price.mul(quantity).compare(VectorOperators.LT, minimumCost).not()
+                .and(price.compare(VectorOperators.LT, mediumPrice).not());
+        DoubleVector taxBasis = price.sub(mediumPrice).mul(quantity).sub(lossValue);
+        taxable = taxable.and(taxBasis.compare(VectorOperators.GT, 0));
+        return DoubleVector.zero(DOUBLES).blend(taxBasis.mul(taxRate), taxable);
+    }
+
+    private static DoubleVector quantities(int[] quantities, int offset) {
+        return (DoubleVector) IntVector.fromArray(INTS, quantities, offset)
+                .convertShape(VectorOperators.I2D, DOUBLES, 0);
+    }
+}
@@ -0,0 +1,220 @@
+package org.capitalgains.session;
+
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandler;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
+import org.capitalgains.model.CapitalGainsContext;
+import org.capitalgains.model.CapitalGainsContextSnapshot;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.Tax;
+
+import java.io.IOException;
+
+/**
+ * Context state for many accounts, keyed by a primitive {@code long} account
+ * id. Accounts are spread over independently locked stripes, each one an
+ * open-addressing table holding the state in parallel primitive arrays, so
+ * threads working on accounts in different stripes never contend. The handler
+ * must be thread-safe.
+ */
+public class AccountContextStore {
+
+    public interface AccountStateConsumer {
+        void accept(long accountId, double mediumPriceValue, int stocksQuantity, double lossValue);
+    }
+
+    private static final int INITIAL_STRIPE_CAPACITY = 16;
+
+    private final CapitalGainsTaxCalculatorHandler handler;
+    private final Stripe[] stripes;
+    private final int stripeShift;
+
+    public AccountContextStore() {
+        this(new CapitalGainsTaxCalculatorHandlerImpl(), Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    public AccountContextStore(CapitalGainsTaxCalculatorHandler handler, int concurrencyLevel) {
+        if (concurrencyLevel < 1) {
+            throw new IllegalArgumentException("Concurrency level must be positive: " + concurrencyLevel);
+        }
+        int stripeCount = Integer.highestOneBit(Math.max(1, concurrencyLevel * 2 - 1));
+        this.handler = handler;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        // The top bits of the hash select the stripe, the bottom bits the slot inside it
+        this.stripeShift = 64 - Integer.numberOfTrailingZeros(stripeCount);
+    }
+
+    public Tax apply(long accountId, Operation operation) {
+        long hash = hash(accountId);
+        Stripe stripe = stripeFor(hash);
+        synchronized (stripe) {
+            int slot = stripe.findOrInsert(accountId, hash);
+            Tax tax = handler.calculateTax(operation, stripe.load(slot));
+            stripe.store(slot);
+            return tax;
+        }
+    }
+
+    // Appends to the log under the account's lock, so the log order matches the order operations were applied
+    public LoggedTax apply(long accountId, Operation operation, OperationLog log) throws IOException {
+        long hash = hash(accountId);
+        Stripe stripe = stripeFor(hash);
+        synchronized (stripe) {
+            int slot = stripe.findOrInsert(accountId, hash);
+            Tax tax = handler.calculateTax(operation, stripe.load(slot));
+            // State is only written back once the operation is logged
+            long sequence = log.append(accountId, operation);
+            stripe.store(slot);
+            return new LoggedTax(tax, sequence);
+        }
+    }
+
+    // Returns null for accounts without any operation
+    public CapitalGainsContextSnapshot snapshot(long accountId) {
+        long hash = hash(accountId);
+        Stripe stripe = stripeFor(hash);
+        synchronized (stripe) {
+            int slot = stripe.find(accountId, hash);
+            if (slot < 0) {
+                return null;
+            }
+            return new CapitalGainsContextSnapshot(stripe.mediumPriceValues[slot], stripe.stocksQuantities[slot], stripe.lossValues[slot]);
+        }
+    }
+
+    public void restore(long accountId, CapitalGainsContextSnapshot snapshot) {
+        long hash = hash(accountId);
+        Stripe stripe = stripeFor(hash);
+        synchronized (stripe) {
+            int slot = stripe.findOrInsert(accountId, hash);
+            stripe.mediumPriceValues[slot] = snapshot.getMediumPriceValue();
+            stripe.stocksQuantities[slot] = snapshot.getStocksQuantity();
+            stripe.lossValues[slot] = snapshot.getLossValue();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    // Each stripe is visited under its own lock, so the view is consistent per stripe only
+    public void forEach(AccountStateConsumer consumer) {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (int slot = 0; slot < stripe.used.length; slot++) {
+                    if (stripe.used[slot]) {
+                        consumer.accept(stripe.accountIds[slot], stripe.mediumPriceValues[slot],
+                                stripe.stocksQuantities[slot], stripe.lossValues[slot]);
+                    }
+                }
+            }
+        }
+    }
+
+    private Stripe stripeFor(long hash) {
+        return stripes[stripeShift == 64 ? 0 : (int) (hash >>> stripeShift)];
+    }
+
+    // Murmur3 finalizer, spreads sequential account ids over stripes and slots
+    private static long hash(long accountId) {
+        long hash = accountId;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Stripe {
+        private final CapitalGainsContext context = new CapitalGainsContext();
+        private long[] accountIds = new long[INITIAL_STRIPE_CAPACITY];
+        private boolean[] used = new boolean[INITIAL_STRIPE_CAPACITY];
+        private double[] mediumPriceValues = new double[INITIAL_STRIPE_CAPACITY];
+        private int[] stocksQuantities = new int[INITIAL_STRIPE_CAPACITY];
+        private double[] lossValues = new double[INITIAL_STRIPE_CAPACITY];
+        private int size;
+
+        CapitalGainsContext load(int slot) {
+            context.setMediumPriceValue(mediumPriceValues[slot]);
+            context.setStocksQuantity(stocksQuantities[slot]);
+            context.setLossValue(lossValues[slot]);
+            return context;
+        }
+
+        void store(int slot) {
+            mediumPriceValues[slot] = context.getMediumPriceValue();
+            stocksQuantities[slot] = context.getStocksQuantity();
+            lossValues[slot] = context.getLossValue();
+        }
+
+        int find(long accountId, long hash) {
+            int mask = used.length - 1;
+            for (int slot = (int) hash & mask; used[slot]; slot = (slot + 1) & mask) {
+                if (accountIds[slot] == accountId) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        int findOrInsert(long accountId, long hash) {
+            int mask = used.length - 1;
+            int slot = (int) hash & mask;
+            while (used[slot]) {
+                if (accountIds[slot] == accountId) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            // Keep the load factor at or below one half
+            if ((size + 1) * 2 > used.length) {
+                grow();
+                return findOrInsert(accountId, hash);
+            }
+            used[slot] = true;
+            accountIds[slot] = accountId;
+            size++;
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldAccountIds = accountIds;
+            boolean[] oldUsed = used;
+            double[] oldMediumPriceValues = mediumPriceValues;
+            int[] oldStocksQuantities = stocksQuantities;
+            double[] oldLossValues = lossValues;
+
+            int capacity = oldUsed.length * 2;
+            accountIds = new long[capacity];
+            used = new boolean[capacity];
+            mediumPriceValues = new double[capacity];
+            stocksQuantities = new int[capacity];
+            lossValues = new double[capacity];
+
+            int mask = capacity - 1;
+            for (int oldSlot = 0; oldSlot < oldUsed.length; oldSlot++) {
+                if (!oldUsed[oldSlot]) {
+                    continue;
+                }
+                int slot = (int) hash(oldAccountIds[oldSlot]) & mask;
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                used[slot] = true;
+                accountIds[slot] = oldAccountIds[oldSlot];
+                mediumPriceValues[slot] = oldMediumPriceValues[oldSlot];
+                stocksQuantities[slot] = oldStocksQuantities[oldSlot];
+                lossValues[slot] = oldLossValues[oldSlot];
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.capitalgains.session;
+
+import org.capitalgains.model.CapitalGainsContextSnapshot;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.Tax;
+
+public interface CapitalGainsSession {
+    // Applies one more operation on top of everything applied so far
+    Tax apply(Operation operation);
+
+    CapitalGainsContextSnapshot snapshot();
+
+    void restore(CapitalGainsContextSnapshot snapshot);
+}
@@ -0,0 +1,47 @@
+package org.capitalgains.session;
+
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandler;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
+import org.capitalgains.model.CapitalGainsContext;
+import org.capitalgains.model.CapitalGainsContextSnapshot;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.Tax;
+
+/**
+ * Keeps one live {@link CapitalGainsContext} so each new operation costs the
+ * same regardless of how many came before it. Not thread-safe.
+ */
+public class CapitalGainsSessionImpl implements CapitalGainsSession {
+
+    private final CapitalGainsTaxCalculatorHandler handler;
+    private final CapitalGainsContext context;
+
+    public CapitalGainsSessionImpl() {
+        this(new CapitalGainsTaxCalculatorHandlerImpl());
+    }
+
+    public CapitalGainsSessionImpl(CapitalGainsTaxCalculatorHandler handler) {
+        this(handler, CapitalGainsContextSnapshot.EMPTY);
+    }
+
+    public CapitalGainsSessionImpl(CapitalGainsTaxCalculatorHandler handler, CapitalGainsContextSnapshot snapshot) {
+        this.handler = handler;
+        this.context = new CapitalGainsContext();
+        this.context.restore(snapshot);
+    }
+
+    @Override
+    public Tax apply(Operation operation) {
+        return handler.calculateTax(operation, context);
+    }
+
+    @Override
+    public CapitalGainsContextSnapshot snapshot() {
+        return context.snapshot();
+    }
+
+    @Override
+    public void restore(CapitalGainsContextSnapshot snapshot) {
+        context.restore(snapshot);
+    }
+}
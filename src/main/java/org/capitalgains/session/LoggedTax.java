@@ -0,0 +1,23 @@
+package org.capitalgains.session;
+
+import org.capitalgains.model.Tax;
+
+// The tax of an operation together with the sequence its log record was given
+public final class LoggedTax {
+
+    private final Tax tax;
+    private final long sequence;
+
+    public LoggedTax(Tax tax, long sequence) {
+        this.tax = tax;
+        this.sequence = sequence;
+    }
+
+    public Tax getTax() {
+        return tax;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,10 @@
+package org.capitalgains.session;
+
+import org.capitalgains.model.Operation;
+
+import java.io.IOException;
+
+public interface OperationLog {
+    // Records the operation and returns its sequence number
+    long append(long accountId, Operation operation) throws IOException;
+}
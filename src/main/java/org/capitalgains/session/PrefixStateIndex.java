@@ -0,0 +1,107 @@
+package org.capitalgains.session;
+
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandler;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
+import org.capitalgains.model.CapitalGainsContext;
+import org.capitalgains.model.CapitalGainsContextSnapshot;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
+
+import java.util.Arrays;
+
+/**
+ * Answers "what was the context right after operation k" without replaying
+ * the whole portfolio. One pass over the operations records the context every
+ * {@code stride} operations; a query restores the nearest recorded state at or
+ * before k and replays fewer than {@code stride} operations from there. Memory
+ * is a copy of the operations plus one state per stride. Queries don't share
+ * any mutable state, so they may run concurrently if the handler allows it.
+ */
+public class PrefixStateIndex {
+
+    public static final int DEFAULT_STRIDE = 64;
+
+    private final CapitalGainsTaxCalculatorHandler handler;
+    private final int stride;
+    private final int size;
+    private final byte[] types;
+    private final double[] unitCosts;
+    private final int[] quantities;
+
+    // Entry j holds the state after the first j * stride operations
+    private final double[] mediumPriceValues;
+    private final int[] stocksQuantities;
+    private final double[] lossValues;
+
+    public PrefixStateIndex(OperationBatch batch) {
+        this(batch, new CapitalGainsTaxCalculatorHandlerImpl(), DEFAULT_STRIDE);
+    }
+
+    public PrefixStateIndex(OperationBatch batch, CapitalGainsTaxCalculatorHandler handler, int stride) {
+        if (stride < 1) {
+            throw new IllegalArgumentException("Stride must be positive: " + stride);
+        }
+        this.handler = handler;
+        this.stride = stride;
+        this.size = batch.size();
+        this.types = Arrays.copyOf(batch.getType(), size);
+        this.unitCosts = Arrays.copyOf(batch.getUnitCost(), size);
+        this.quantities = Arrays.copyOf(batch.getQuantity(), size);
+
+        int checkpoints = size / stride + 1;
+        this.mediumPriceValues = new double[checkpoints];
+        this.stocksQuantities = new int[checkpoints];
+        this.lossValues = new double[checkpoints];
+
+        CapitalGainsContext context = new CapitalGainsContext();
+        Operation operation = new Operation();
+        for (int i = 0; i < size; i++) {
+            if (i % stride == 0) {
+                record(i / stride, context);
+            }
+            handler.calculateTax(load(i, operation), context);
+        }
+        if (size % stride == 0) {
+            record(size / stride, context);
+        }
+    }
+
+    public CapitalGainsContextSnapshot stateAfter(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Operation index " + index + " out of bounds for size " + size);
+        }
+        int applied = index + 1;
+        int checkpoint = applied / stride;
+        CapitalGainsContext context = new CapitalGainsContext();
+        context.setMediumPriceValue(mediumPriceValues[checkpoint]);
+        context.setStocksQuantity(stocksQuantities[checkpoint]);
+        context.setLossValue(lossValues[checkpoint]);
+
+        Operation operation = new Operation();
+        for (int i = checkpoint * stride; i < applied; i++) {
+            handler.calculateTax(load(i, operation), context);
+        }
+        return context.snapshot();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    private void record(int checkpoint, CapitalGainsContext context) {
+        mediumPriceValues[checkpoint] = context.getMediumPriceValue();
+        stocksQuantities[checkpoint] = context.getStocksQuantity();
+        lossValues[checkpoint] = context.getLossValue();
+    }
+
+    private Operation load(int index, Operation operation) {
+        operation.setOperationType(OperationBatch.operationType(types[index]));
+        operation.setUnitCost(unitCosts[index]);
+        operation.setQuantity(quantities[index]);
+        return operation;
+    }
+}
@@ -0,0 +1,54 @@
+package org.capitalgains.session;
+
+import org.capitalgains.handler.SellOperationHandlerImpl;
+import org.capitalgains.model.CapitalGainsContext;
+import org.capitalgains.model.CapitalGainsContextSnapshot;
+import org.capitalgains.service.TaxCalculator;
+import org.capitalgains.service.TaxKernel;
+
+/**
+ * Evaluates many hypothetical sells against the same context state. Candidate
+ * i sells {@code quantities[i]} at {@code prices[i]}; its tax, realized profit
+ * (negative for a loss) and the loss carried afterwards are written at index i
+ * of the output arrays, with the same results {@code SellOperationHandlerImpl}
+ * would give. The context is only read, never modified or copied.
+ */
+public class WhatIfSellEvaluator {
+
+    private final TaxCalculator taxCalculator;
+
+    public WhatIfSellEvaluator() {
+        this(TaxKernel.configured().createTaxCalculator());
+    }
+
+    public WhatIfSellEvaluator(TaxCalculator taxCalculator) {
+        this.taxCalculator = taxCalculator;
+    }
+
+    public void evaluate(CapitalGainsContext context, double[] prices, int[] quantities,
+                         double[] taxes, double[] realizedProfits, double[] lossValues, int length) {
+        evaluate(context.getMediumPriceValue(), context.getLossValue(),
+                prices, quantities, taxes, realizedProfits, lossValues, length);
+    }
+
+    public void evaluate(CapitalGainsContextSnapshot snapshot, double[] prices, int[] quantities,
+                         double[] taxes, double[] realizedProfits, double[] lossValues, int length) {
+        evaluate(snapshot.getMediumPriceValue(), snapshot.getLossValue(),
+                prices, quantities, taxes, realizedProfits, lossValues, length);
+    }
+
+    private void evaluate(double mediumPrice, double loss, double[] prices, int[] quantities,
+                          double[] taxes, double[] realizedProfits, double[] lossValues, int length) {
+        if (prices.length < length || quantities.length < length || taxes.length < length
+                || realizedProfits.length < length || lossValues.length < length) {
+            throw new IllegalArgumentException("Every array must hold at least " + length + " candidates");
+        }
+        taxCalculator.calculateTaxes(prices, mediumPrice, loss, quantities, taxes, length);
+        for (int i = 0; i < length; i++) {
+            double price = prices[i];
+            int quantity = quantities[i];
+            realizedProfits[i] = (price - mediumPrice) * quantity;
+            lossValues[i] = SellOperationHandlerImpl.carryLoss(price, mediumPrice, loss, quantity);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.capitalgains;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelLineProcessorTest {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    @Test
+    void shouldPrintResultsInInputOrder() throws IOException {
+        // Given
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            // Each line sells at a different price so every output line is unique
+            int sellPrice = 20 + i;
+            input.append("[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":10000},")
+                    .append("{\"operation\":\"sell\", \"unit-cost\":").append(sellPrice).append(".00, \"quantity\":10000}]\n");
+            double tax = (sellPrice - 10) * 10000 * 0.2;
+            expected.append("[{\"tax\":0.0},{\"tax\":").append(tax).append("}]").append(LINE_SEPARATOR);
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // When
+        try (ParallelLineProcessor processor = new ParallelLineProcessor(new CapitalGainsTaxCalculatorHandlerImpl(), new ObjectMapper(), 4)) {
+            processor.process(new BufferedReader(new StringReader(input.toString())), new PrintStream(outputStream));
+        }
+
+        // Then
+        assertEquals(expected.toString(), outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldStopAtBlankLine() throws IOException {
+        // Given
+        String input = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":100}]\n\n"
+                + "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":100}]\n";
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // When
+        try (ParallelLineProcessor processor = new ParallelLineProcessor(new CapitalGainsTaxCalculatorHandlerImpl(), new ObjectMapper(), 2)) {
+            processor.process(new BufferedReader(new StringReader(input)), new PrintStream(outputStream));
+        }
+
+        // Then
+        assertEquals("[{\"tax\":0.0}]" + LINE_SEPARATOR, outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldPropagateParseErrors() {
+        // Given
+        String input = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":100}]\nnot json\n";
+
+        // When / Then
+        try (ParallelLineProcessor processor = new ParallelLineProcessor(new CapitalGainsTaxCalculatorHandlerImpl(), new ObjectMapper(), 2)) {
+            assertThrows(IOException.class, () -> processor.process(new BufferedReader(new StringReader(input)), new PrintStream(new ByteArrayOutputStream())));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.capitalgains.benchmark;
+
+import org.capitalgains.model.OperationBatch;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Reference implementation of the fixed point rounding rules on BigDecimal
+public class BigDecimalTaxKernel {
+
+    private static final BigDecimal TAX_RATE = new BigDecimal("0.20");
+    private static final BigDecimal MINIMUM_COST = new BigDecimal("20000.00");
+
+    public void calculateTaxes(OperationBatch batch, double[] taxes) {
+        BigDecimal mediumPrice = BigDecimal.ZERO;
+        long stocksQuantity = 0;
+        BigDecimal lossValue = BigDecimal.ZERO;
+
+        for (int i = 0; i < batch.size(); i++) {
+            BigDecimal price = BigDecimal.valueOf(batch.getUnitCost()[i]).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal quantity = BigDecimal.valueOf(batch.getQuantity()[i]);
+
+            if (batch.getType()[i] == OperationBatch.BUY) {
+                long totalQuantity = stocksQuantity + batch.getQuantity()[i];
+                if (totalQuantity != 0) {
+                    mediumPrice = mediumPrice.multiply(BigDecimal.valueOf(stocksQuantity))
+                            .add(price.multiply(quantity))
+                            .divide(BigDecimal.valueOf(totalQuantity), 2, RoundingMode.HALF_UP);
+                }
+                stocksQuantity = totalQuantity;
+                taxes[i] = 0;
+                continue;
+            }
+
+            BigDecimal tax = BigDecimal.ZERO;
+            if (price.multiply(quantity).compareTo(MINIMUM_COST) >= 0 && price.compareTo(mediumPrice) >= 0) {
+                BigDecimal taxBasis = price.subtract(mediumPrice).multiply(quantity).subtract(lossValue);
+                if (taxBasis.signum() > 0) {
+                    tax = taxBasis.multiply(TAX_RATE).setScale(2, RoundingMode.HALF_UP);
+                }
+            }
+            taxes[i] = tax.doubleValue();
+            stocksQuantity -= batch.getQuantity()[i];
+
+            BigDecimal result = price.subtract(mediumPrice).multiply(quantity);
+            if (result.signum() < 0) {
+                lossValue = lossValue.subtract(result);
+            } else {
+                lossValue = lossValue.compareTo(result) < 0 ? BigDecimal.ZERO : lossValue.subtract(result);
+            }
+        }
+    }
+}
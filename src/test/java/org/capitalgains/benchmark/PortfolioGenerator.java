@@ -0,0 +1,87 @@
+package org.capitalgains.benchmark;
+
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
+import org.capitalgains.model.OperationType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+public final class PortfolioGenerator {
+
+    public enum Trend {
+        // Sell prices drawn independently of the average price
+        RANDOM,
+        // Sells above the average price, so taxes are due on most of them
+        PROFIT,
+        // Sells below the average price, so losses keep being carried
+        LOSS
+    }
+
+    private PortfolioGenerator() {
+    }
+
+    public static OperationBatch generate(int size, double sellRatio, long seed) {
+        return generate(size, sellRatio, Trend.RANDOM, seed);
+    }
+
+    // Prices are whole cents; sells never exceed the current position
+    public static OperationBatch generate(int size, double sellRatio, Trend trend, long seed) {
+        Random random = new Random(seed);
+        OperationBatch batch = new OperationBatch(size);
+        int stocksQuantity = 0;
+        double mediumPrice = 0;
+        for (int i = 0; i < size; i++) {
+            if (stocksQuantity > 0 && random.nextDouble() < sellRatio) {
+                int quantity = 1 + random.nextInt(stocksQuantity);
+                batch.add(OperationBatch.SELL, sellPrice(random, trend, mediumPrice), quantity);
+                stocksQuantity -= quantity;
+            } else {
+                double unitCost = (1 + random.nextInt(10_000)) / 100.0;
+                int quantity = 1 + random.nextInt(10_000);
+                batch.add(OperationBatch.BUY, unitCost, quantity);
+                mediumPrice = (mediumPrice * stocksQuantity + unitCost * quantity) / (stocksQuantity + quantity);
+                stocksQuantity += quantity;
+            }
+        }
+        return batch;
+    }
+
+    public static List<Operation> toOperations(OperationBatch batch) {
+        List<Operation> operations = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Operation operation = new Operation();
+            operation.setOperationType(batch.getType()[i] == OperationBatch.BUY ? OperationType.BUY : OperationType.SELL);
+            operation.setUnitCost(batch.getUnitCost()[i]);
+            operation.setQuantity(batch.getQuantity()[i]);
+            operations.add(operation);
+        }
+        return operations;
+    }
+
+    public static String toJson(OperationBatch batch) {
+        StringBuilder line = new StringBuilder(batch.size() * 56).append('[');
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append("{\"operation\":\"").append(batch.getType()[i] == OperationBatch.BUY ? "buy" : "sell")
+                    .append("\", \"unit-cost\":").append(String.format(Locale.ROOT, "%.2f", batch.getUnitCost()[i]))
+                    .append(", \"quantity\":").append(batch.getQuantity()[i]).append('}');
+        }
+        return line.append(']').toString();
+    }
+
+    private static double sellPrice(Random random, Trend trend, double mediumPrice) {
+        switch (trend) {
+            case PROFIT:
+                return Math.max(1, Math.round(mediumPrice * (100 + 50 * random.nextDouble()))) / 100.0;
+            case LOSS:
+                return Math.max(1, Math.round(mediumPrice * (100 - 50 * random.nextDouble()))) / 100.0;
+            default:
+                return (1 + random.nextInt(10_000)) / 100.0;
+        }
+    }
+}
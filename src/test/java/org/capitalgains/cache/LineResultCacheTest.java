@@ -0,0 +1,94 @@
+package org.capitalgains.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineResultCacheTest {
+
+    private static final byte[] OUTPUT = "[{\"tax\":0.0}]\n".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void shouldReturnCachedOutputForIdenticalLineBytes() {
+        // Given
+        LineResultCache cache = new LineResultCache(1 << 20);
+        cache.put(cache.key(bytes("[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":100}]")), OUTPUT, 1);
+        // The same line in the middle of a larger buffer
+        ByteBuffer line = ByteBuffer.wrap(bytes("xx[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":100}]yy"), 2, 56).slice();
+
+        // When
+        LineResultCache.Result cached = cache.get(cache.key(line));
+
+        // Then
+        assertSame(OUTPUT, cached.getOutput());
+        assertEquals(1, cached.getTaxCount());
+        assertEquals(0, line.position());
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    void shouldCountMissForUnseenLine() {
+        // Given
+        LineResultCache cache = new LineResultCache(1 << 20);
+        cache.put(cache.key(bytes("[1]")), OUTPUT, 1);
+
+        // When
+        LineResultCache.Result cached = cache.get(cache.key(bytes("[1] ")));
+
+        // Then
+        assertNull(cached);
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedLinesWhenFull() {
+        // Given, room for two entries
+        byte[] output = new byte[100];
+        LineResultCache cache = new LineResultCache(2 * (128 + 32 + output.length));
+        LineResultCache.Key first = cache.key(bytes("first"));
+        LineResultCache.Key second = cache.key(bytes("second"));
+        LineResultCache.Key third = cache.key(bytes("third"));
+        cache.put(first, output, 1);
+        cache.put(second, output, 1);
+        cache.get(first);
+
+        // When
+        cache.put(third, output, 1);
+
+        // Then
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.getEntries());
+        assertTrue(cache.getSizeBytes() <= cache.getMaxSizeBytes());
+    }
+
+    @Test
+    void shouldNotCacheOutputLargerThanTheCache() {
+        // Given
+        LineResultCache cache = new LineResultCache(1_000);
+        LineResultCache.Key key = cache.key(bytes("line"));
+
+        // When
+        cache.put(key, new byte[1_000], 1);
+
+        // Then
+        assertNull(cache.get(key));
+        assertEquals(0, cache.getSizeBytes());
+    }
+
+    @Test
+    void shouldRejectNonPositiveSize() {
+        assertThrows(IllegalArgumentException.class, () -> new LineResultCache(0));
+    }
+
+    private static byte[] bytes(String line) {
+        return line.getBytes(StandardCharsets.UTF_8);
+    }
+}
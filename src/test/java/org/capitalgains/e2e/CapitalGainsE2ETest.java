@@ -1,8 +1,12 @@
 package org.capitalgains.e2e;
 
+import org.capitalgains.benchmark.BigDecimalTaxKernel;
+import org.capitalgains.benchmark.PortfolioGenerator;
+import org.capitalgains.handler.ArithmeticEngine;
 import org.capitalgains.handler.CapitalGainsTaxCalculatorHandler;
 import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
 import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
 import org.capitalgains.model.OperationType;
 import org.capitalgains.model.Tax;
 import org.junit.jupiter.api.Test;
@@ -114,5 +118,57 @@ class CapitalGainsE2ETest {
         operation.setUnitCost(unitCost);
         return operation;
     }
+
+    @Test
+    void shouldCalculateSameTaxesForColumnarBatch() {
+        // Given
+        CapitalGainsTaxCalculatorHandler handler = new CapitalGainsTaxCalculatorHandlerImpl();
+
+        List<Operation> operations = Arrays.asList(
+                createOperation(OperationType.BUY, 1000, 20.00),
+                createOperation(OperationType.SELL, 500, 10.00),
+                createOperation(OperationType.BUY, 500, 15.00),
+                createOperation(OperationType.SELL, 1000, 25.00),
+                createOperation(OperationType.BUY, 10000, 10.00),
+                createOperation(OperationType.SELL, 5000, 50.00)
+        );
+        OperationBatch batch = new OperationBatch(2);
+        for (Operation operation : operations) {
+            batch.add(operation.getOperationType(), operation.getUnitCost(), operation.getQuantity());
+        }
+        double[] batchTaxes = new double[batch.size()];
+
+        // When
+        List<Tax> taxes = handler.calculateTaxes(operations);
+        handler.calculateTaxes(batch, batchTaxes);
+
+        // Then
+        assertEquals(taxes.size(), batchTaxes.length);
+        for (int i = 0; i < batchTaxes.length; i++) {
+            assertEquals(taxes.get(i).getTax(), batchTaxes[i]);
+        }
+    }
+
+    @Test
+    void shouldMatchBigDecimalReferenceWithFixedPointEngine() {
+        // Given
+        CapitalGainsTaxCalculatorHandler handler = ArithmeticEngine.FIXED_POINT.createHandler();
+        OperationBatch batch = PortfolioGenerator.generate(10_000, 0.5, 7);
+        double[] fixedPointTaxes = new double[batch.size()];
+        double[] referenceTaxes = new double[batch.size()];
+
+        List<Operation> operations = PortfolioGenerator.toOperations(batch);
+
+        // When
+        handler.calculateTaxes(batch, fixedPointTaxes);
+        new BigDecimalTaxKernel().calculateTaxes(batch, referenceTaxes);
+        List<Tax> taxes = handler.calculateTaxes(operations);
+
+        // Then
+        assertArrayEquals(referenceTaxes, fixedPointTaxes);
+        for (int i = 0; i < taxes.size(); i++) {
+            assertEquals(referenceTaxes[i], taxes.get(i).getTax());
+        }
+    }
 }
 
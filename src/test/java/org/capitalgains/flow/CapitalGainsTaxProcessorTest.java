@@ -0,0 +1,187 @@
+package org.capitalgains.flow;
+
+import org.capitalgains.benchmark.PortfolioGenerator;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.Tax;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapitalGainsTaxProcessorTest {
+
+    private static List<Double> expectedTaxes(List<Operation> operations) {
+        List<Double> expected = new ArrayList<>();
+        for (Tax tax : new CapitalGainsTaxCalculatorHandlerImpl().calculateTaxes(operations)) {
+            expected.add(tax.getTax());
+        }
+        return expected;
+    }
+
+    @Test
+    void shouldEmitSameTaxesAsHandler() throws Exception {
+        // Given
+        List<Operation> operations = PortfolioGenerator.toOperations(PortfolioGenerator.generate(500, 0.4, 9L));
+        List<Double> taxes = new ArrayList<>();
+        CapitalGainsTaxProcessor processor = new CapitalGainsTaxProcessor();
+        TaxSubscriber subscriber = new TaxSubscriber(tax -> taxes.add(tax.getTax()), 16);
+
+        // When
+        processor.subscribe(subscriber);
+        new OperationPublisher(operations).subscribe(processor);
+        subscriber.getCompletion().get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(expectedTaxes(operations), taxes);
+    }
+
+    @Test
+    void shouldPullOnlyWhatDownstreamRequested() {
+        // Given
+        List<Operation> operations = PortfolioGenerator.toOperations(PortfolioGenerator.generate(100, 0.4, 1L));
+        AtomicInteger pulled = new AtomicInteger();
+        Iterable<Operation> source = () -> new Iterator<>() {
+            private final Iterator<Operation> delegate = operations.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public Operation next() {
+                pulled.incrementAndGet();
+                return delegate.next();
+            }
+        };
+        List<Tax> taxes = new ArrayList<>();
+        Flow.Subscription[] subscription = new Flow.Subscription[1];
+        CapitalGainsTaxProcessor processor = new CapitalGainsTaxProcessor();
+        processor.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription[0] = s;
+                s.request(3);
+            }
+
+            @Override
+            public void onNext(Tax tax) {
+                taxes.add(tax);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        // When, demand was signalled before the upstream existed
+        new OperationPublisher(source).subscribe(processor);
+
+        // Then
+        assertEquals(3, pulled.get());
+        assertEquals(3, taxes.size());
+
+        subscription[0].request(2);
+        assertEquals(5, pulled.get());
+        assertEquals(5, taxes.size());
+    }
+
+    @Test
+    void shouldCompleteWhenExactlyTheInputSizeWasRequested() {
+        // Given
+        List<Operation> operations = PortfolioGenerator.toOperations(PortfolioGenerator.generate(10, 0.4, 2L));
+        List<Operation> received = new ArrayList<>();
+        AtomicInteger completions = new AtomicInteger();
+
+        // When
+        new OperationPublisher(operations).subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(operations.size());
+            }
+
+            @Override
+            public void onNext(Operation operation) {
+                received.add(operation);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completions.incrementAndGet();
+            }
+        });
+
+        // Then
+        assertEquals(operations, received);
+        assertEquals(1, completions.get());
+    }
+
+    @Test
+    void shouldWorkBehindBoundedAsynchronousPublisher() throws Exception {
+        // Given
+        List<Operation> operations = PortfolioGenerator.toOperations(PortfolioGenerator.generate(2_000, 0.4, 4L));
+        List<Double> taxes = new ArrayList<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CapitalGainsTaxProcessor processor = new CapitalGainsTaxProcessor();
+        TaxSubscriber subscriber = new TaxSubscriber(tax -> taxes.add(tax.getTax()), 8);
+        processor.subscribe(subscriber);
+
+        // When, submit blocks whenever the 16-slot buffer is full
+        try (SubmissionPublisher<Operation> publisher = new SubmissionPublisher<>(executor, 16)) {
+            publisher.subscribe(processor);
+            operations.forEach(publisher::submit);
+        }
+        subscriber.getCompletion().get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Then
+        assertEquals(expectedTaxes(operations), taxes);
+    }
+
+    @Test
+    void shouldPropagateUpstreamFailure() {
+        // Given
+        Iterable<Operation> failing = () -> new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Operation next() {
+                throw new IllegalStateException("source failed");
+            }
+        };
+        CapitalGainsTaxProcessor processor = new CapitalGainsTaxProcessor();
+        TaxSubscriber subscriber = new TaxSubscriber(tax -> { }, 4);
+
+        // When
+        processor.subscribe(subscriber);
+        new OperationPublisher(failing).subscribe(processor);
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> subscriber.getCompletion().get());
+        assertEquals("source failed", exception.getCause().getMessage());
+    }
+}
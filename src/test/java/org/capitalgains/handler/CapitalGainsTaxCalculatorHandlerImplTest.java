@@ -1,13 +1,19 @@
 package org.capitalgains.handler;
 
+import org.capitalgains.benchmark.PortfolioGenerator;
 import org.capitalgains.model.CapitalGainsContext;
 import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
 import org.capitalgains.model.OperationType;
 import org.capitalgains.model.Tax;
+import org.capitalgains.service.FixedPointMediumPriceCalculator;
+import org.capitalgains.service.FixedPointTaxCalculator;
 import org.capitalgains.service.MediumPriceCalculator;
 import org.capitalgains.service.TaxCalculator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -209,5 +215,143 @@ class CapitalGainsTaxCalculatorHandlerImplTest {
         operation.setUnitCost(unitCost);
         return operation;
     }
-}
 
+    @Test
+    void shouldUseCalculatorsForBatch() {
+        // Given
+        OperationBatch batch = new OperationBatch();
+        batch.add(OperationType.BUY, 10.0, 100);
+        batch.add(OperationType.SELL, 15.0, 50);
+        double[] taxes = new double[2];
+
+        when(mediumPriceCalculator.calculate(10.0, 0.0, 0, 100)).thenReturn(10.0);
+        when(taxCalculator.calculateTax(15.0, 10.0, 0.0, 50)).thenReturn(42.0);
+
+        // When
+        handler.calculateTaxes(batch, taxes);
+
+        // Then
+        verify(mediumPriceCalculator).calculate(10.0, 0.0, 0, 100);
+        verify(taxCalculator).calculateTax(15.0, 10.0, 0.0, 50);
+        verifyNoInteractions(buyOperationHandler, sellOperationHandler);
+        assertEquals(0.0, taxes[0]);
+        assertEquals(42.0, taxes[1]);
+    }
+
+    // The batch kernels keep the loss carry in locals, so they are checked against the handler-based list path
+    @ParameterizedTest
+    @EnumSource(PortfolioGenerator.Trend.class)
+    void shouldMatchListPathForBatch(PortfolioGenerator.Trend trend) {
+        // Given
+        OperationBatch batch = PortfolioGenerator.generate(2_000, 0.5, trend, 11L);
+        List<Operation> operations = PortfolioGenerator.toOperations(batch);
+        List<CapitalGainsTaxCalculatorHandlerImpl> handlers = List.of(
+                new CapitalGainsTaxCalculatorHandlerImpl(), new FixedPointCapitalGainsTaxCalculatorHandlerImpl());
+
+        for (CapitalGainsTaxCalculatorHandlerImpl candidate : handlers) {
+            double[] taxes = new double[batch.size()];
+
+            // When
+            List<Tax> expected = candidate.calculateTaxes(operations);
+            candidate.calculateTaxes(batch, taxes);
+
+            // Then
+            for (int i = 0; i < batch.size(); i++) {
+                assertEquals(expected.get(i).getTax(), taxes[i], candidate.getClass().getSimpleName() + " operation " + i);
+            }
+        }
+    }
+
+    @Test
+    void shouldRejectTaxesArraySmallerThanBatch() {
+        // Given
+        OperationBatch batch = new OperationBatch();
+        batch.add(OperationType.BUY, 10.0, 100);
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> handler.calculateTaxes(batch, new double[0]));
+    }
+
+    // Moves the position out of the account without tax, for the registry tests
+    private static final OperationTypeHandler TRANSFER_OUT = (operation, context) -> {
+        context.removeStocksQuantity(operation.getQuantity());
+        return new Tax(0);
+    };
+
+    @Test
+    void shouldDispatchRegisteredOperationTypes() {
+        // Given
+        CapitalGainsTaxCalculatorHandlerImpl registryHandler = new CapitalGainsTaxCalculatorHandlerImpl(
+                new OperationTypeRegistry().register(OperationType.TRANSFER_OUT, TRANSFER_OUT));
+        Operation buy = new Operation();
+        buy.setOperationType("buy");
+        buy.setUnitCost(10.0);
+        buy.setQuantity(10000);
+        Operation transfer = new Operation();
+        transfer.setOperationType("transfer-out");
+        transfer.setUnitCost(0.0);
+        transfer.setQuantity(5000);
+        Operation sell = new Operation();
+        sell.setOperationType("sell");
+        sell.setUnitCost(20.0);
+        sell.setQuantity(5000);
+
+        // When
+        List<Tax> taxes = registryHandler.calculateTaxes(List.of(buy, transfer, sell));
+        OperationBatch batch = new OperationBatch();
+        batch.add(OperationType.BUY, 10.0, 10000);
+        batch.add(OperationType.TRANSFER_OUT, 0.0, 5000);
+        batch.add(OperationType.SELL, 20.0, 5000);
+        double[] batchTaxes = new double[3];
+        registryHandler.calculateTaxes(batch, batchTaxes);
+        CapitalGainsContext context = new CapitalGainsContext();
+        context.setStocksQuantity(100);
+        registryHandler.calculateTax(transfer, context);
+
+        // Then
+        assertEquals(List.of(0.0, 0.0, 10000.0), taxes.stream().map(Tax::getTax).toList());
+        assertArrayEquals(new double[]{0.0, 0.0, 10000.0}, batchTaxes);
+        assertEquals(-4900, context.getStocksQuantity());
+    }
+
+    @Test
+    void shouldRejectOperationTypesWithoutHandler() {
+        // Given
+        Operation split = new Operation();
+        split.setOperationType(OperationType.SPLIT);
+        OperationBatch batch = new OperationBatch();
+        batch.add(OperationType.SPLIT, 0.0, 2);
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> handler.calculateTaxes(List.of(split)));
+        assertThrows(IllegalArgumentException.class, () -> handler.calculateTaxes(batch, new double[1]));
+    }
+
+    @Test
+    void shouldRejectRegisteredHandlerReturningNoTax() {
+        // Given
+        OperationTypeRegistry registry = new OperationTypeRegistry().register(OperationType.SPLIT, (operation, context) -> null);
+        CapitalGainsTaxCalculatorHandlerImpl registryHandler = new CapitalGainsTaxCalculatorHandlerImpl(registry);
+        FixedPointCapitalGainsTaxCalculatorHandlerImpl fixedPointHandler = new FixedPointCapitalGainsTaxCalculatorHandlerImpl(
+                new FixedPointMediumPriceCalculator(), new FixedPointTaxCalculator(), registry);
+        Operation split = new Operation();
+        split.setOperationType(OperationType.SPLIT);
+        split.setQuantity(2);
+        OperationBatch batch = new OperationBatch();
+        batch.add(OperationType.SPLIT, 0.0, 2);
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> registryHandler.calculateTaxes(List.of(split)));
+        assertThrows(IllegalStateException.class, () -> registryHandler.calculateTax(split, new CapitalGainsContext()));
+        assertThrows(IllegalStateException.class, () -> registryHandler.calculateTaxes(batch, new double[1]));
+        assertThrows(IllegalStateException.class, () -> fixedPointHandler.calculateTaxes(batch, new double[1]));
+    }
+
+    @Test
+    void shouldNotAllowReplacingBuiltInTypes() {
+        OperationTypeRegistry registry = new OperationTypeRegistry();
+
+        assertThrows(IllegalArgumentException.class, () -> registry.register(OperationType.BUY, TRANSFER_OUT));
+        assertThrows(IllegalArgumentException.class, () -> registry.register(OperationType.SELL, TRANSFER_OUT));
+    }
+}
@@ -0,0 +1,122 @@
+package org.capitalgains.io;
+
+import org.capitalgains.model.OperationBatch;
+import org.capitalgains.model.OperationType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryOperationReaderTest {
+
+    private static byte[] write(OperationBatch... lines) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BinaryOperationWriter writer = new BinaryOperationWriter(out)) {
+            for (OperationBatch line : lines) {
+                writer.writeLine(line);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static BinaryOperationReader reader(byte[] bytes) throws IOException {
+        return new BinaryOperationReader(Channels.newChannel(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    void shouldReadBackEveryLine() throws IOException {
+        // Given
+        OperationBatch first = new OperationBatch();
+        first.add(OperationType.BUY, 10.0, 10_000);
+        first.add(OperationType.SELL, 20.01, 5_000);
+        OperationBatch empty = new OperationBatch();
+        OperationBatch third = new OperationBatch();
+        third.add(OperationType.TRANSFER_OUT, 0.1 + 0.2, Integer.MAX_VALUE);
+
+        // When
+        byte[] bytes = write(first, empty, third);
+
+        // Then
+        assertEquals(4 + 3 * 4 + 3 * BinaryFormat.OPERATION_SIZE, bytes.length);
+        OperationBatch batch = new OperationBatch();
+        try (BinaryOperationReader reader = reader(bytes)) {
+            assertTrue(reader.next(batch));
+            assertBatch(first, batch);
+            assertTrue(reader.next(batch));
+            assertEquals(0, batch.size());
+            assertTrue(reader.next(batch));
+            assertBatch(third, batch);
+            assertFalse(reader.next(batch));
+        }
+    }
+
+    @Test
+    void shouldReadLinesLongerThanTheBuffer() throws IOException {
+        // Given, about 13 buffers worth of operations
+        OperationBatch line = new OperationBatch();
+        for (int i = 0; i < 65_537; i++) {
+            line.add(i % 2 == 0 ? OperationType.BUY : OperationType.SELL, i / 100.0, i);
+        }
+
+        // When
+        OperationBatch batch = new OperationBatch();
+        try (BinaryOperationReader reader = reader(write(line, line))) {
+            // Then
+            assertTrue(reader.next(batch));
+            assertBatch(line, batch);
+            assertTrue(reader.next(batch));
+            assertBatch(line, batch);
+            assertFalse(reader.next(batch));
+        }
+    }
+
+    @Test
+    void shouldRejectOtherFiles() {
+        byte[] json = "[{\"operation\":\"buy\"}]".getBytes();
+
+        assertThrows(IOException.class, () -> reader(json));
+        assertThrows(IOException.class, () -> reader(new byte[0]));
+    }
+
+    @Test
+    void shouldRejectTruncatedLine() throws IOException {
+        // Given
+        OperationBatch line = new OperationBatch();
+        line.add(OperationType.BUY, 10.0, 100);
+        line.add(OperationType.SELL, 15.0, 50);
+        byte[] bytes = write(line);
+
+        // When / Then
+        try (BinaryOperationReader reader = reader(Arrays.copyOf(bytes, bytes.length - 1))) {
+            assertThrows(EOFException.class, () -> reader.next(new OperationBatch()));
+        }
+    }
+
+    @Test
+    void shouldRejectUnknownTypeCode() throws IOException {
+        // Given
+        OperationBatch line = new OperationBatch();
+        line.add(OperationType.BUY, 10.0, 100);
+        byte[] bytes = write(line);
+        bytes[8] = 42;
+
+        // When / Then
+        try (BinaryOperationReader reader = reader(bytes)) {
+            IOException exception = assertThrows(IOException.class, () -> reader.next(new OperationBatch()));
+            assertEquals("Invalid operation type code: 42", exception.getMessage());
+        }
+    }
+
+    private static void assertBatch(OperationBatch expected, OperationBatch actual) {
+        assertEquals(expected.size(), actual.size());
+        assertArrayEquals(Arrays.copyOf(expected.getType(), expected.size()), Arrays.copyOf(actual.getType(), actual.size()));
+        assertArrayEquals(Arrays.copyOf(expected.getUnitCost(), expected.size()), Arrays.copyOf(actual.getUnitCost(), actual.size()));
+        assertArrayEquals(Arrays.copyOf(expected.getQuantity(), expected.size()), Arrays.copyOf(actual.getQuantity(), actual.size()));
+    }
+}
@@ -0,0 +1,58 @@
+package org.capitalgains.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryTaxWriterTest {
+
+    @Test
+    void shouldWriteBigEndianCountAndTaxes() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When, only the first two taxes belong to the line
+        try (BinaryTaxWriter writer = new BinaryTaxWriter(out)) {
+            writer.writeLine(new double[]{0.0, 10_000.0, 7.0}, 2);
+        }
+
+        // Then
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(BinaryFormat.TAXES_MAGIC, in.readInt());
+        assertEquals(2, in.readInt());
+        assertEquals(0.0, in.readDouble());
+        assertEquals(10_000.0, in.readDouble());
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    void shouldReadBackLinesLongerThanTheBuffer() throws IOException {
+        // Given
+        double[] taxes = new double[20_000];
+        for (int i = 0; i < taxes.length; i++) {
+            taxes[i] = i * 0.2;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        try (BinaryTaxWriter writer = new BinaryTaxWriter(out)) {
+            writer.writeLine(taxes, taxes.length);
+            writer.writeLine(taxes, 0);
+            writer.writeLine(taxes, 3);
+        }
+
+        // Then
+        try (BinaryTaxReader reader = new BinaryTaxReader(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())))) {
+            assertArrayEquals(taxes, reader.nextLine());
+            assertArrayEquals(new double[0], reader.nextLine());
+            assertArrayEquals(new double[]{0.0, 0.2, 0.4}, reader.nextLine());
+            assertNull(reader.nextLine());
+        }
+    }
+}
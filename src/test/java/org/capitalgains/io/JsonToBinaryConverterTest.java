@@ -0,0 +1,101 @@
+package org.capitalgains.io;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
+import org.capitalgains.model.Tax;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonToBinaryConverterTest {
+
+    private static final String CASE_5 = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":10000},"
+            + "{\"operation\":\"buy\", \"unit-cost\":25.00, \"quantity\":5000},"
+            + "{\"operation\":\"sell\", \"unit-cost\":15.00, \"quantity\":10000},"
+            + "{\"operation\":\"sell\", \"unit-cost\":25.00, \"quantity\":5000}]";
+    // Keys in another order, so the schema parser hands the line to Jackson
+    private static final String REORDERED = "[{\"quantity\":10000, \"unit-cost\":10.00, \"operation\":\"buy\"},"
+            + "{\"quantity\":5000, \"unit-cost\":20.00, \"operation\":\"sell\"}]";
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void shouldConvertUpToTheFirstEmptyLine() throws IOException {
+        // Given
+        Path input = tempDir.resolve("input.json");
+        Files.writeString(input, CASE_5 + "\n" + REORDERED + "\n\n" + CASE_5 + "\n");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        int lines;
+        try (MappedLineReader reader = new MappedLineReader(input);
+             BinaryOperationWriter writer = new BinaryOperationWriter(out)) {
+            lines = new JsonToBinaryConverter(mapper).convert(reader, writer);
+        }
+
+        // Then
+        assertEquals(2, lines);
+        assertEquals(List.of(taxes(CASE_5), taxes(REORDERED)), binaryTaxes(out.toByteArray()));
+    }
+
+    @Test
+    void shouldConvertStdinLines() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        try (BinaryOperationWriter writer = new BinaryOperationWriter(out)) {
+            new JsonToBinaryConverter(mapper).convert(new BufferedReader(new StringReader(REORDERED + "\n" + CASE_5)), writer);
+        }
+
+        // Then
+        assertEquals(List.of(taxes(REORDERED), taxes(CASE_5)), binaryTaxes(out.toByteArray()));
+    }
+
+    @Test
+    void shouldRejectMalformedLine() {
+        BufferedReader reader = new BufferedReader(new StringReader("[{\"operation\":\"hold\"}]"));
+
+        assertThrows(IOException.class, () -> new JsonToBinaryConverter(mapper)
+                .convert(reader, new BinaryOperationWriter(new ByteArrayOutputStream())));
+    }
+
+    // Taxes of the JSON line as the default databind path calculates them
+    private List<Double> taxes(String json) throws IOException {
+        List<Operation> operations = mapper.readValue(json, new TypeReference<>() {});
+        return new CapitalGainsTaxCalculatorHandlerImpl().calculateTaxes(operations).stream().map(Tax::getTax).toList();
+    }
+
+    private static List<List<Double>> binaryTaxes(byte[] bytes) throws IOException {
+        CapitalGainsTaxCalculatorHandlerImpl handler = new CapitalGainsTaxCalculatorHandlerImpl();
+        OperationBatch batch = new OperationBatch();
+        List<List<Double>> lines = new ArrayList<>();
+        try (BinaryOperationReader reader = new BinaryOperationReader(Channels.newChannel(new ByteArrayInputStream(bytes)))) {
+            while (reader.next(batch)) {
+                double[] taxes = new double[batch.size()];
+                handler.calculateTaxes(batch, taxes);
+                lines.add(Arrays.stream(taxes).boxed().toList());
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,81 @@
+package org.capitalgains.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedLineReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path write(String content) throws IOException {
+        Path file = tempDir.resolve("input.txt");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String text(ByteBuffer line) {
+        byte[] bytes = new byte[line.remaining()];
+        line.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void shouldSplitLinesWithoutTerminators() throws IOException {
+        // Given
+        Path file = write("[1]\n[2]\r\n\n[3]");
+
+        // When / Then
+        try (MappedLineReader reader = new MappedLineReader(file)) {
+            assertEquals("[1]", text(reader.nextLine()));
+            assertEquals("[2]", text(reader.nextLine()));
+            assertEquals("", text(reader.nextLine()));
+            assertEquals("[3]", text(reader.nextLine()));
+            assertNull(reader.nextLine());
+        }
+    }
+
+    @Test
+    void shouldReturnNullForEmptyFile() throws IOException {
+        // Given
+        Path file = write("");
+
+        // When / Then
+        try (MappedLineReader reader = new MappedLineReader(file)) {
+            assertNull(reader.nextLine());
+        }
+    }
+
+    @Test
+    void shouldRemapWhenLineCrossesWindow() throws IOException {
+        // Given: an 8 byte window forces a new mapping for every other line
+        Path file = write("abcde\nfghij\nklmno\n");
+
+        // When / Then
+        try (MappedLineReader reader = new MappedLineReader(file, 8)) {
+            assertEquals("abcde", text(reader.nextLine()));
+            assertEquals("fghij", text(reader.nextLine()));
+            assertEquals("klmno", text(reader.nextLine()));
+            assertNull(reader.nextLine());
+        }
+    }
+
+    @Test
+    void shouldFailWhenLineIsLongerThanWindow() throws IOException {
+        // Given
+        Path file = write("abcdefghijkl\nx\n");
+
+        // When / Then
+        try (MappedLineReader reader = new MappedLineReader(file, 8)) {
+            assertThrows(IOException.class, reader::nextLine);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.capitalgains.io;
+
+import org.capitalgains.model.OperationBatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationByteParserTest {
+
+    private OperationByteParser parser;
+    private OperationBatch batch;
+
+    @BeforeEach
+    void setUp() {
+        parser = new OperationByteParser();
+        batch = new OperationBatch();
+    }
+
+    private void parse(String line) throws OperationParseException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        parser.parse(bytes, 0, bytes.length, batch);
+    }
+
+    @Test
+    void shouldParseOperations() throws OperationParseException {
+        // When
+        parse("[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":100}, {\"operation\":\"sell\", \"unit-cost\":15.50, \"quantity\":50}]");
+
+        // Then
+        assertEquals(2, batch.size());
+        assertEquals(OperationBatch.BUY, batch.getType()[0]);
+        assertEquals(10.0, batch.getUnitCost()[0]);
+        assertEquals(100, batch.getQuantity()[0]);
+        assertEquals(OperationBatch.SELL, batch.getType()[1]);
+        assertEquals(15.5, batch.getUnitCost()[1]);
+        assertEquals(50, batch.getQuantity()[1]);
+    }
+
+    @Test
+    void shouldAcceptAnyKeyOrderWhitespaceAndCase() throws OperationParseException {
+        // When
+        parse(" [ { \"quantity\" : 7 ,\t\"unit-cost\" : 1 , \"operation\" : \"SeLl\" } ] ");
+
+        // Then
+        assertEquals(1, batch.size());
+        assertEquals(OperationBatch.SELL, batch.getType()[0]);
+        assertEquals(1.0, batch.getUnitCost()[0]);
+        assertEquals(7, batch.getQuantity()[0]);
+    }
+
+    @Test
+    void shouldParseEmptyArray() throws OperationParseException {
+        parse("[]");
+        assertEquals(0, batch.size());
+    }
+
+    @Test
+    void shouldParseNumbersLikeDoubleParseDouble() throws OperationParseException {
+        String[] numbers = {"0.05", "123.456", "1e3", "2.5E-2", "-3.75", "0.1", "9007199254740993", "1.23456789012345678", "1e-30"};
+        for (String number : numbers) {
+            batch.clear();
+            parse("[{\"operation\":\"buy\",\"unit-cost\":" + number + ",\"quantity\":1}]");
+            assertEquals(Double.parseDouble(number), batch.getUnitCost()[0], number);
+        }
+    }
+
+    @Test
+    void shouldRejectNumbersOutsideJsonGrammar() {
+        String[] numbers = {".5", "-.5", "007", "-01", "00.5", "1.", "1.e3", "-"};
+        for (String number : numbers) {
+            assertThrows(OperationParseException.class,
+                    () -> parse("[{\"operation\":\"buy\",\"unit-cost\":" + number + ",\"quantity\":1}]"), number);
+        }
+        assertThrows(OperationParseException.class, () -> parse("[{\"operation\":\"buy\",\"quantity\":007}]"));
+    }
+
+    @Test
+    void shouldAcceptSingleZeroBeforeFractionOrExponent() throws OperationParseException {
+        String[] numbers = {"0", "-0", "0.5", "0e1", "10"};
+        for (String number : numbers) {
+            batch.clear();
+            parse("[{\"operation\":\"buy\",\"unit-cost\":" + number + ",\"quantity\":0}]");
+            assertEquals(Double.parseDouble(number), batch.getUnitCost()[0], number);
+        }
+    }
+
+    @Test
+    void shouldReportUnknownFieldPosition() {
+        OperationParseException exception = assertThrows(OperationParseException.class,
+                () -> parse("[{\"operation\":\"buy\",\"price\":1}]"));
+        assertEquals(20, exception.getOffset());
+    }
+
+    @Test
+    void shouldReportUnknownOperationTypePosition() {
+        OperationParseException exception = assertThrows(OperationParseException.class,
+                () -> parse("[{\"operation\":\"hold\"}]"));
+        assertEquals(14, exception.getOffset());
+    }
+
+    @Test
+    void shouldRejectFractionalQuantity() {
+        OperationParseException exception = assertThrows(OperationParseException.class,
+                () -> parse("[{\"operation\":\"buy\",\"quantity\":1.5}]"));
+        assertEquals(31, exception.getOffset());
+    }
+
+    @Test
+    void shouldRejectQuantityOutOfRange() {
+        assertThrows(OperationParseException.class,
+                () -> parse("[{\"operation\":\"buy\",\"quantity\":2147483648}]"));
+    }
+
+    @Test
+    void shouldRejectMissingOperationType() {
+        OperationParseException exception = assertThrows(OperationParseException.class,
+                () -> parse("[{\"operation\":\"buy\"},{\"quantity\":1}]"));
+        assertEquals(21, exception.getOffset());
+    }
+
+    @Test
+    void shouldRejectTruncatedLine() {
+        OperationParseException exception = assertThrows(OperationParseException.class,
+                () -> parse("[{\"operation\":\"buy\""));
+        assertEquals(19, exception.getOffset());
+    }
+
+    @Test
+    void shouldRejectTrailingContent() {
+        assertThrows(OperationParseException.class, () -> parse("[] x"));
+    }
+}
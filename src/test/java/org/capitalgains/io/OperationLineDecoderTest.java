@@ -0,0 +1,41 @@
+package org.capitalgains.io;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.capitalgains.model.OperationBatch;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationLineDecoderTest {
+
+    private final OperationLineDecoder decoder = new OperationLineDecoder(new ObjectMapper(), true);
+
+    private static ByteBuffer bytes(String line) {
+        return ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldFallBackToJacksonOutsideSchema() throws IOException {
+        // Given: Jackson coerces the fractional quantity, the schema parser does not
+        OperationBatch batch = new OperationBatch();
+
+        // When
+        decoder.decode(bytes("[{\"operation\":\"buy\",\"unit-cost\":10.00,\"quantity\":100.0}]"), batch);
+
+        // Then
+        assertEquals(1, batch.size());
+        assertEquals(100, batch.getQuantity()[0]);
+    }
+
+    @Test
+    void shouldReportSchemaErrorWhenJacksonFailsToo() {
+        OperationParseException exception = assertThrows(OperationParseException.class,
+                () -> decoder.decode(bytes("[{\"operation\":\"buy\",,]"), new OperationBatch()));
+        assertEquals(20, exception.getOffset());
+        assertEquals(1, exception.getSuppressed().length);
+    }
+}
@@ -0,0 +1,106 @@
+package org.capitalgains.io;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationStreamReaderTest {
+
+    private OperationStreamReader createReader(String input) throws IOException {
+        return new OperationStreamReader(new JsonFactory(),
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void shouldReadOperationsOneAtATime() throws IOException {
+        // Given
+        OperationStreamReader reader = createReader(
+                "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":100},"
+                        + "{\"operation\":\"sell\", \"unit-cost\":15.00, \"quantity\":50}]\n");
+
+        // When / Then
+        assertTrue(reader.nextLine());
+
+        Operation first = reader.nextOperation();
+        assertEquals(OperationType.BUY, first.getOperationType());
+        assertEquals(10.0, first.getUnitCost());
+        assertEquals(100, first.getQuantity());
+
+        Operation second = reader.nextOperation();
+        assertEquals(OperationType.SELL, second.getOperationType());
+        assertEquals(15.0, second.getUnitCost());
+        assertEquals(50, second.getQuantity());
+
+        assertNull(reader.nextOperation());
+        assertFalse(reader.nextLine());
+    }
+
+    @Test
+    void shouldReadMultipleLines() throws IOException {
+        // Given
+        OperationStreamReader reader = createReader(
+                "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":100}]\n"
+                        + "[{\"operation\":\"buy\", \"unit-cost\":20.00, \"quantity\":10}]\n");
+
+        // When / Then
+        assertTrue(reader.nextLine());
+        assertEquals(10.0, reader.nextOperation().getUnitCost());
+        assertNull(reader.nextOperation());
+
+        assertTrue(reader.nextLine());
+        assertEquals(20.0, reader.nextOperation().getUnitCost());
+        assertNull(reader.nextOperation());
+
+        assertFalse(reader.nextLine());
+    }
+
+    @Test
+    void shouldNotCarryFieldsOverFromPreviousOperation() throws IOException {
+        // Given
+        OperationStreamReader reader = createReader(
+                "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":100},"
+                        + "{\"quantity\":50}]\n");
+
+        // When
+        reader.nextLine();
+        reader.nextOperation();
+        Operation second = reader.nextOperation();
+
+        // Then, as databinding would leave them
+        assertNull(second.getOperationType());
+        assertEquals(0.0, second.getUnitCost());
+        assertEquals(50, second.getQuantity());
+    }
+
+    @Test
+    void shouldStopAtBlankLine() throws IOException {
+        // Given
+        OperationStreamReader reader = createReader(
+                "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":100}]\n\n"
+                        + "[{\"operation\":\"buy\", \"unit-cost\":20.00, \"quantity\":10}]\n");
+
+        // When / Then
+        assertTrue(reader.nextLine());
+        assertNotNull(reader.nextOperation());
+        assertNull(reader.nextOperation());
+        assertFalse(reader.nextLine());
+    }
+
+    @Test
+    void shouldRejectUnknownFields() throws IOException {
+        // Given
+        OperationStreamReader reader = createReader("[{\"operation\":\"buy\", \"price\":10.00}]");
+
+        // When / Then
+        assertTrue(reader.nextLine());
+        assertThrows(JsonParseException.class, reader::nextOperation);
+    }
+}
@@ -0,0 +1,56 @@
+package org.capitalgains.io;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.capitalgains.model.Tax;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaxStreamWriterTest {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    @Test
+    void shouldWriteSameOutputAsDatabind() throws IOException {
+        // Given
+        List<Tax> taxes = List.of(new Tax(0), new Tax(10000), new Tax(123.45));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // When
+        try (TaxStreamWriter writer = new TaxStreamWriter(new JsonFactory(), outputStream)) {
+            writer.startLine();
+            for (Tax tax : taxes) {
+                writer.write(tax);
+            }
+            writer.endLine();
+        }
+
+        // Then
+        String expected = new ObjectMapper().writeValueAsString(taxes) + LINE_SEPARATOR;
+        assertEquals(expected, outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldFlushEachLine() throws IOException {
+        // Given
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        TaxStreamWriter writer = new TaxStreamWriter(new JsonFactory(), outputStream);
+
+        // When
+        writer.startLine();
+        writer.write(new Tax(0));
+        writer.endLine();
+        writer.startLine();
+        writer.endLine();
+
+        // Then
+        assertEquals("[{\"tax\":0.0}]" + LINE_SEPARATOR + "[]" + LINE_SEPARATOR,
+                outputStream.toString(StandardCharsets.UTF_8));
+    }
+}
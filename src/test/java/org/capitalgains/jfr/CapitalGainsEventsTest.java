@@ -0,0 +1,108 @@
+package org.capitalgains.jfr;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
+import org.capitalgains.io.OperationLineDecoder;
+import org.capitalgains.io.TaxStreamWriter;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapitalGainsEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldRecordParseCalculationAndWriteEventsWithBundledSettings() throws IOException, ParseException {
+        // Given, two sells: a loss of 5000 and then a profit of 10000 that uses it up
+        String line = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":10000},"
+                + "{\"operation\":\"sell\", \"unit-cost\":5.00, \"quantity\":1000},"
+                + "{\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\":1000}]";
+        ObjectMapper mapper = new ObjectMapper();
+        OperationBatch batch = new OperationBatch();
+        double[] taxes = new double[3];
+        Path file = tempDir.resolve("recording.jfr");
+
+        // When
+        Configuration configuration = Configuration.create(Path.of("src/main/config/capitalgains.jfc"));
+        try (Recording recording = new Recording(configuration)) {
+            recording.start();
+            new OperationLineDecoder(mapper, true).decode(ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8)), batch);
+            new CapitalGainsTaxCalculatorHandlerImpl().calculateTaxes(batch, taxes);
+            try (TaxStreamWriter writer = new TaxStreamWriter(mapper.getFactory(), new ByteArrayOutputStream())) {
+                writer.writeLine(taxes, batch.size());
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("org.capitalgains."))
+                .collect(Collectors.toList());
+        RecordedEvent parse = single(events, "org.capitalgains.LineParse");
+        assertEquals("schema", parse.getString("parser"));
+        assertEquals(line.length(), parse.getLong("lineLength"));
+        assertEquals(3, parse.getInt("operationCount"));
+
+        RecordedEvent calculation = single(events, "org.capitalgains.TaxCalculation");
+        assertEquals(3, calculation.getInt("operationCount"));
+        assertEquals(2, calculation.getInt("sellCount"));
+        assertEquals(1, calculation.getInt("lossCarryResets"));
+
+        RecordedEvent write = single(events, "org.capitalgains.OutputWrite");
+        assertEquals(3, write.getInt("taxCount"));
+    }
+
+    @Test
+    void shouldCountLossCarryResetsInOperationListPath() throws IOException, ParseException {
+        // Given
+        ObjectMapper mapper = new ObjectMapper();
+        String line = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":10000},"
+                + "{\"operation\":\"sell\", \"unit-cost\":5.00, \"quantity\":1000},"
+                + "{\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\":1000},"
+                + "{\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\":1000}]";
+        Path file = tempDir.resolve("list.jfr");
+
+        // When
+        try (Recording recording = new Recording(Configuration.create(Path.of("src/main/config/capitalgains.jfc")))) {
+            recording.start();
+            new CapitalGainsTaxCalculatorHandlerImpl().calculateTaxes(
+                    mapper.readValue(line, new TypeReference<List<Operation>>() {}));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Then
+        RecordedEvent calculation = single(RecordingFile.readAllEvents(file), "org.capitalgains.TaxCalculation");
+        assertEquals(4, calculation.getInt("operationCount"));
+        assertEquals(3, calculation.getInt("sellCount"));
+        assertEquals(1, calculation.getInt("lossCarryResets"));
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+        assertEquals(1, matching.size(), name);
+        return matching.get(0);
+    }
+}
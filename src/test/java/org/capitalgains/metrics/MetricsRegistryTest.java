@@ -0,0 +1,125 @@
+package org.capitalgains.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    @Test
+    void shouldReportPercentilesAsBucketUpperBounds() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // When, 90 fast samples and 10 slow ones
+        for (int i = 0; i < 90; i++) {
+            histogram.record(1_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1_000_000);
+        }
+
+        // Then
+        assertEquals(100, histogram.getCount());
+        assertEquals(100_900, histogram.getMeanNanos());
+        assertEquals(1_000_000, histogram.getMaxNanos());
+        // 1000 falls in [512, 1024)
+        assertEquals(1_023, histogram.getP50Nanos());
+        assertEquals(1_023, histogram.getP90Nanos());
+        // Capped at the largest sample rather than the bucket bound 1048575
+        assertEquals(1_000_000, histogram.getP99Nanos());
+    }
+
+    @Test
+    void shouldHandleZeroAndEmptyHistograms() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getP99Nanos());
+        assertEquals(0, histogram.getMeanNanos());
+
+        histogram.record(0);
+        histogram.record(-5);
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.getP50Nanos());
+    }
+
+    @Test
+    void shouldCountFromManyThreads() throws InterruptedException {
+        // Given
+        MetricsRegistry metrics = new MetricsRegistry(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // When
+        for (int thread = 0; thread < 4; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    long time = metrics.startTime();
+                    metrics.record(Stage.CALCULATE, time);
+                    metrics.lineProcessed(3);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(40_000, metrics.getLinesProcessed());
+        assertEquals(120_000, metrics.getOperationsProcessed());
+        assertEquals(40_000, metrics.getStageLatency(Stage.CALCULATE).getCount());
+        assertEquals(0, metrics.getStageLatency(Stage.PARSE).getCount());
+    }
+
+    @Test
+    void shouldRecordNothingWhenDisabled() {
+        MetricsRegistry metrics = MetricsRegistry.DISABLED;
+
+        assertEquals(0, metrics.startTime());
+        metrics.record(Stage.PARSE, metrics.startTime());
+        metrics.lineProcessed(10);
+
+        assertEquals(0, metrics.getLinesProcessed());
+        assertEquals(0, metrics.getStageLatency(Stage.PARSE).getCount());
+    }
+
+    @Test
+    void shouldExposeMetricsOverJmx() throws JMException {
+        // Given
+        MetricsRegistry metrics = new MetricsRegistry(true);
+        metrics.lineProcessed(7);
+        metrics.getStageLatency(Stage.WRITE).record(2_000);
+
+        // When
+        metrics.registerMBeans();
+
+        // Then
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertEquals(7L, server.getAttribute(new ObjectName("org.capitalgains:type=Metrics"), "OperationsProcessed"));
+        assertEquals(1L, server.getAttribute(new ObjectName("org.capitalgains:type=StageLatency,stage=write"), "Count"));
+    }
+
+    @Test
+    void shouldPrintSummary() {
+        // Given
+        MetricsRegistry metrics = new MetricsRegistry(true);
+        metrics.lineProcessed(2);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        metrics.printSummary(new PrintStream(output, true, StandardCharsets.UTF_8));
+
+        // Then
+        String summary = output.toString(StandardCharsets.UTF_8);
+        assertTrue(summary.startsWith("lines=1 operations=2"));
+        assertTrue(summary.contains("calculate"));
+    }
+}
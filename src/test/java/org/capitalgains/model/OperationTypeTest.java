@@ -0,0 +1,43 @@
+package org.capitalgains.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationTypeTest {
+
+    @Test
+    void shouldKeepReleasedTypeCodes() {
+        // Given the codes already written to binary files and journals
+        // When / Then
+        assertEquals(0, OperationType.BUY.getCode());
+        assertEquals(1, OperationType.SELL.getCode());
+        assertEquals(2, OperationType.SPLIT.getCode());
+        assertEquals(3, OperationType.BONUS.getCode());
+        assertEquals(4, OperationType.DIVIDEND_IN_KIND.getCode());
+        assertEquals(5, OperationType.TRANSFER_IN.getCode());
+        assertEquals(6, OperationType.TRANSFER_OUT.getCode());
+        assertEquals(OperationBatch.BUY, OperationType.BUY.getCode());
+        assertEquals(OperationBatch.SELL, OperationType.SELL.getCode());
+    }
+
+    @Test
+    void shouldMapEveryCodeBackToItsType() {
+        // Given
+        OperationType[] operationTypes = OperationType.values();
+
+        // When / Then
+        for (OperationType operationType : operationTypes) {
+            assertEquals(operationType, OperationType.fromCode(operationType.getCode()));
+        }
+        assertEquals(operationTypes.length, OperationType.codeLimit());
+    }
+
+    @Test
+    void shouldRejectUnknownCodes() {
+        // When / Then
+        assertFalse(OperationType.isValidCode(-1));
+        assertFalse(OperationType.isValidCode(OperationType.codeLimit()));
+        assertThrows(IllegalArgumentException.class, () -> OperationType.fromCode(OperationType.codeLimit()));
+    }
+}
@@ -0,0 +1,132 @@
+package org.capitalgains.persistence;
+
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
+import org.capitalgains.model.CapitalGainsContextSnapshot;
+import org.capitalgains.session.AccountContextStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCheckpointRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private BinaryCheckpointRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("state.checkpoint");
+        repository = new BinaryCheckpointRepository(file);
+    }
+
+    private static AccountContextStore newStore() {
+        return new AccountContextStore(new CapitalGainsTaxCalculatorHandlerImpl(), 4);
+    }
+
+    @Test
+    void shouldRoundTripStoreState() throws IOException {
+        // Given
+        AccountContextStore store = newStore();
+        for (long accountId = 0; accountId < 5000; accountId++) {
+            store.restore(accountId * 31, new CapitalGainsContextSnapshot(accountId / 100.0, (int) accountId, accountId * 2.5));
+        }
+
+        // When
+        repository.save(123_456L, store);
+        AccountContextStore loaded = newStore();
+        long sequence = repository.load(loaded);
+
+        // Then
+        assertEquals(123_456L, sequence);
+        assertEquals(5000, loaded.size());
+        for (long accountId = 0; accountId < 5000; accountId++) {
+            assertEquals(store.snapshot(accountId * 31), loaded.snapshot(accountId * 31));
+        }
+        long expectedSize = BinaryCheckpointRepository.HEADER_SIZE + 5000L * BinaryCheckpointRepository.RECORD_SIZE
+                + BinaryCheckpointRepository.TRAILER_SIZE;
+        assertEquals(expectedSize, Files.size(file));
+    }
+
+    @Test
+    void shouldReturnZeroWhenThereIsNoCheckpoint() throws IOException {
+        AccountContextStore store = newStore();
+        assertEquals(0, repository.load(store));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void shouldReplacePreviousCheckpoint() throws IOException {
+        // Given
+        AccountContextStore store = newStore();
+        store.restore(1L, new CapitalGainsContextSnapshot(10.0, 100, 0));
+        repository.save(1, store);
+        store.restore(1L, new CapitalGainsContextSnapshot(12.0, 200, 0));
+
+        // When
+        repository.save(2, store);
+        AccountContextStore loaded = newStore();
+
+        // Then
+        assertEquals(2, repository.load(loaded));
+        assertEquals(200, loaded.snapshot(1L).getStocksQuantity());
+        assertFalse(Files.exists(tempDir.resolve("state.checkpoint.tmp")));
+    }
+
+    @Test
+    void shouldRejectCorruptedCheckpointWithoutTouchingStore() throws IOException {
+        // Given
+        AccountContextStore store = newStore();
+        store.restore(1L, new CapitalGainsContextSnapshot(10.0, 100, 0));
+        repository.save(1, store);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[BinaryCheckpointRepository.HEADER_SIZE + 10] ^= 0x01;
+        Files.write(file, bytes);
+
+        // When
+        AccountContextStore loaded = newStore();
+        IOException exception = assertThrows(IOException.class, () -> repository.load(loaded));
+
+        // Then
+        assertTrue(exception.getMessage().contains("checksum"));
+        assertEquals(0, loaded.size());
+    }
+
+    @Test
+    void shouldCheckpointPeriodically() throws IOException {
+        // Given
+        AccountContextStore store = newStore();
+        PeriodicCheckpointer checkpointer = new PeriodicCheckpointer(repository, store, 10, 0);
+
+        // When / Then
+        assertFalse(checkpointer.operationApplied(9));
+        assertTrue(checkpointer.operationApplied(10));
+        assertFalse(checkpointer.operationApplied(19));
+        assertTrue(checkpointer.operationApplied(25));
+        assertEquals(25, repository.load(newStore()));
+    }
+
+    @Test
+    void shouldRejectReportsFromSecondApplierThread() throws Exception {
+        // Given
+        PeriodicCheckpointer checkpointer = new PeriodicCheckpointer(repository, newStore(), 10, 0);
+        checkpointer.operationApplied(1);
+        Throwable[] failure = new Throwable[1];
+
+        // When
+        Thread other = new Thread(() -> failure[0] = assertThrows(IllegalStateException.class, () -> checkpointer.operationApplied(2)));
+        other.start();
+        other.join();
+
+        // Then
+        assertInstanceOf(IllegalStateException.class, failure[0]);
+        assertFalse(checkpointer.operationApplied(3));
+    }
+}
@@ -0,0 +1,177 @@
+package org.capitalgains.persistence;
+
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationType;
+import org.capitalgains.session.AccountContextStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedOperationJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Operation operation(OperationType type, double unitCost, int quantity) {
+        Operation operation = new Operation();
+        operation.setOperationType(type);
+        operation.setUnitCost(unitCost);
+        operation.setQuantity(quantity);
+        return operation;
+    }
+
+    private static List<long[]> replayAll(SegmentedOperationJournal journal, long afterSequence) throws IOException {
+        List<long[]> records = new ArrayList<>();
+        journal.replay(afterSequence, (sequence, accountId, operation) ->
+                records.add(new long[]{sequence, accountId, operation.getQuantity()}));
+        return records;
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void shouldReplayAppendedOperationsAfterReopening() throws IOException {
+        // Given
+        try (SegmentedOperationJournal journal = new SegmentedOperationJournal(tempDir, 1024)) {
+            assertEquals(1, journal.append(7, operation(OperationType.BUY, 10.5, 100)));
+            assertEquals(2, journal.append(8, operation(OperationType.SELL, 20.25, 50)));
+        }
+
+        // When
+        List<Operation> operations = new ArrayList<>();
+        List<Long> accountIds = new ArrayList<>();
+        try (SegmentedOperationJournal journal = new SegmentedOperationJournal(tempDir, 1024)) {
+            assertEquals(2, journal.getLastSequence());
+            journal.replay(0, (sequence, accountId, operation) -> {
+                accountIds.add(accountId);
+                operations.add(operation);
+            });
+        }
+
+        // Then
+        assertEquals(List.of(7L, 8L), accountIds);
+        assertEquals(OperationType.BUY, operations.get(0).getOperationType());
+        assertEquals(10.5, operations.get(0).getUnitCost());
+        assertEquals(100, operations.get(0).getQuantity());
+        assertEquals(OperationType.SELL, operations.get(1).getOperationType());
+        assertEquals(20.25, operations.get(1).getUnitCost());
+        assertEquals(50, operations.get(1).getQuantity());
+    }
+
+    @Test
+    void shouldTruncateTornRecordAtTheEnd() throws IOException {
+        // Given
+        try (SegmentedOperationJournal journal = new SegmentedOperationJournal(tempDir, 1024)) {
+            journal.append(1, operation(OperationType.BUY, 10, 1));
+            journal.append(1, operation(OperationType.BUY, 10, 2));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(tempDir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(SegmentedOperationJournal.RECORD_SIZE * 2L - 5);
+        }
+
+        // When
+        try (SegmentedOperationJournal journal = new SegmentedOperationJournal(tempDir, 1024)) {
+            assertEquals(1, journal.getLastSequence());
+            assertEquals(2, journal.append(1, operation(OperationType.BUY, 10, 3)));
+        }
+
+        // Then
+        try (SegmentedOperationJournal journal = new SegmentedOperationJournal(tempDir, 1024)) {
+            List<long[]> records = replayAll(journal, 0);
+            assertEquals(2, records.size());
+            assertEquals(1, records.get(0)[2]);
+            assertEquals(3, records.get(1)[2]);
+        }
+    }
+
+    @Test
+    void shouldRollSegmentsAndReplayFromASequence() throws IOException {
+        // Given
+        try (SegmentedOperationJournal journal = new SegmentedOperationJournal(tempDir, SegmentedOperationJournal.RECORD_SIZE * 10L)) {
+            for (int i = 1; i <= 35; i++) {
+                journal.append(i % 3, operation(OperationType.BUY, 1, i));
+                journal.sync();
+            }
+
+            // When
+            List<long[]> records = replayAll(journal, 22);
+
+            // Then
+            assertTrue(segmentCount() >= 4);
+            assertEquals(13, records.size());
+            for (int i = 0; i < records.size(); i++) {
+                assertEquals(23 + i, records.get(i)[0]);
+                assertEquals(23 + i, records.get(i)[2]);
+            }
+        }
+    }
+
+    @Test
+    void shouldDeleteSegmentsCoveredByACheckpoint() throws IOException {
+        // Given
+        try (SegmentedOperationJournal journal = new SegmentedOperationJournal(tempDir, SegmentedOperationJournal.RECORD_SIZE * 10L)) {
+            for (int i = 1; i <= 35; i++) {
+                journal.append(1, operation(OperationType.BUY, 1, i));
+                journal.sync();
+            }
+
+            // When
+            int deleted = journal.compact(25);
+
+            // Then
+            assertEquals(2, deleted);
+            List<long[]> records = replayAll(journal, 25);
+            assertEquals(10, records.size());
+            assertEquals(26, records.get(0)[0]);
+        }
+    }
+
+    @Test
+    void shouldRecoverDurableStoreFromCheckpointAndJournal() throws IOException {
+        // Given
+        AccountContextStore expected = new AccountContextStore(new CapitalGainsTaxCalculatorHandlerImpl(), 4);
+        try (DurableAccountContextStore durable = new DurableAccountContextStore(
+                new AccountContextStore(new CapitalGainsTaxCalculatorHandlerImpl(), 4), tempDir, 1024)) {
+            for (int i = 0; i < 200; i++) {
+                Operation operation = i % 4 == 3
+                        ? operation(OperationType.SELL, 5 + i % 7, 10)
+                        : operation(OperationType.BUY, 10, 20);
+                expected.apply(i % 5, operation);
+                durable.apply(i % 5, operation);
+                if (i == 120) {
+                    assertEquals(121, durable.checkpoint());
+                }
+            }
+        }
+
+        // When
+        try (DurableAccountContextStore recovered = new DurableAccountContextStore(
+                new AccountContextStore(new CapitalGainsTaxCalculatorHandlerImpl(), 4), tempDir, 1024)) {
+
+            // Then
+            assertEquals(200, recovered.getLastSequence());
+            for (long accountId = 0; accountId < 5; accountId++) {
+                assertEquals(expected.snapshot(accountId), recovered.getStore().snapshot(accountId));
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.capitalgains.pipeline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
+import org.capitalgains.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineLineProcessorTest {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final String BUY_LINE = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":100}]";
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.class)
+    void shouldPrintResultsInInputOrder(WaitStrategy waitStrategy) throws IOException {
+        // Given, more lines than the rings hold
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            // Each line sells at a different price so every output line is unique
+            int sellPrice = 20 + i;
+            input.append("[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":10000},")
+                    .append("{\"operation\":\"sell\", \"unit-cost\":").append(sellPrice).append(".00, \"quantity\":10000}]\n");
+            double tax = (sellPrice - 10) * 10000 * 0.2;
+            expected.append("[{\"tax\":0.0},{\"tax\":").append(tax).append("}]").append(LINE_SEPARATOR);
+        }
+
+        // When
+        String output = process(input.toString(), 3, waitStrategy);
+
+        // Then
+        assertEquals(expected.toString(), output);
+    }
+
+    @Test
+    void shouldStopAtBlankLine() throws IOException {
+        // Given
+        String input = BUY_LINE + "\r\n\r\n" + BUY_LINE + "\n";
+
+        // When
+        String output = process(input, 2, WaitStrategy.PARK);
+
+        // Then
+        assertEquals("[{\"tax\":0.0}]" + LINE_SEPARATOR, output);
+    }
+
+    @Test
+    void shouldProcessLastLineWithoutNewline() throws IOException {
+        // Given
+        String input = BUY_LINE + "\n" + BUY_LINE;
+
+        // When
+        String output = process(input, 2, WaitStrategy.YIELD);
+
+        // Then
+        assertEquals(("[{\"tax\":0.0}]" + LINE_SEPARATOR).repeat(2), output);
+    }
+
+    @Test
+    void shouldWriteEarlierLinesBeforePropagatingParseErrors() {
+        // Given
+        String input = BUY_LINE + "\n" + BUY_LINE + "\nnot json\n" + BUY_LINE + "\n";
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PipelineLineProcessor processor = new PipelineLineProcessor(new CapitalGainsTaxCalculatorHandlerImpl(), new ObjectMapper(),
+                2, true, WaitStrategy.PARK, MetricsRegistry.DISABLED);
+
+        // When
+        assertThrows(IOException.class, () -> processor.process(channel(input), outputStream));
+
+        // Then
+        assertEquals(("[{\"tax\":0.0}]" + LINE_SEPARATOR).repeat(2), outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldRejectUnknownWaitStrategy() {
+        assertThrows(IllegalArgumentException.class, () -> WaitStrategy.fromOptionName("sleep"));
+    }
+
+    private static String process(String input, int parsers, WaitStrategy waitStrategy) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new PipelineLineProcessor(new CapitalGainsTaxCalculatorHandlerImpl(), new ObjectMapper(), parsers, true, waitStrategy,
+                MetricsRegistry.DISABLED).process(channel(input), outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    private static ReadableByteChannel channel(String input) {
+        return Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,57 @@
+package org.capitalgains.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpscRingBufferTest {
+
+    @Test
+    void shouldHandOverSlotsInOrderBetweenThreads() throws InterruptedException {
+        // Given
+        SpscRingBuffer<long[]> ring = new SpscRingBuffer<>(4, () -> new long[1], WaitStrategy.YIELD, () -> false);
+        int count = 100_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                ring.claim()[0] = i;
+                ring.publish();
+            }
+        });
+
+        // When
+        producer.start();
+        long sum = 0;
+        long previous = -1;
+        for (int i = 0; i < count; i++) {
+            long value = ring.take()[0];
+            assertEquals(previous + 1, value);
+            previous = value;
+            sum += value;
+            ring.release();
+        }
+        producer.join();
+
+        // Then
+        assertEquals((long) count * (count - 1) / 2, sum);
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    void shouldStopWaitingOnceCancelled() {
+        // Given
+        AtomicBoolean cancelled = new AtomicBoolean();
+        SpscRingBuffer<long[]> ring = new SpscRingBuffer<>(2, () -> new long[1], WaitStrategy.PARK, cancelled::get);
+        cancelled.set(true);
+
+        // When / Then
+        assertThrows(CancellationException.class, ring::take);
+    }
+
+    @Test
+    void shouldRejectCapacityThatIsNotAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new SpscRingBuffer<>(3, Object::new, WaitStrategy.PARK, () -> false));
+    }
+}
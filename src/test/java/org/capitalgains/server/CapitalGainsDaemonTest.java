@@ -0,0 +1,149 @@
+package org.capitalgains.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.capitalgains.handler.ArithmeticEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapitalGainsDaemonTest {
+
+    private static final String CASE_1 = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":100},"
+            + "{\"operation\":\"sell\", \"unit-cost\":15.00, \"quantity\":50},"
+            + "{\"operation\":\"sell\", \"unit-cost\":15.00, \"quantity\":50}]";
+    private static final String CASE_2 = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":10000},"
+            + "{\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\":5000},"
+            + "{\"operation\":\"sell\", \"unit-cost\":5.00, \"quantity\":5000}]";
+    private static final String NEWLINE = System.lineSeparator();
+
+    @TempDir
+    Path directory;
+
+    private Path socketPath;
+    private CapitalGainsDaemon daemon;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        socketPath = directory.resolve("daemon.sock");
+        daemon = new CapitalGainsDaemon(new ObjectMapper(), socketPath);
+        daemon.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        daemon.close();
+    }
+
+    private String run(ArithmeticEngine engine, String input) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(new DaemonClient(socketPath).run(engine, new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void shouldAnswerEveryLineUpToTheFirstEmptyLine() throws IOException {
+        String output = run(ArithmeticEngine.DOUBLE, CASE_1 + "\n" + CASE_2 + "\n\n" + CASE_1 + "\n");
+
+        assertEquals("[{\"tax\":0.0},{\"tax\":0.0},{\"tax\":0.0}]" + NEWLINE
+                + "[{\"tax\":0.0},{\"tax\":10000.0},{\"tax\":0.0}]" + NEWLINE, output);
+    }
+
+    @Test
+    void shouldUseTheClientArithmeticEngine() throws IOException {
+        String output = run(ArithmeticEngine.FIXED_POINT, CASE_2 + "\n");
+
+        assertEquals("[{\"tax\":0.0},{\"tax\":10000.0},{\"tax\":0.0}]" + NEWLINE, output);
+    }
+
+    @Test
+    void shouldReportMalformedLineAfterEarlierAnswers() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DaemonClient client = new DaemonClient(socketPath);
+
+        IOException exception = assertThrows(IOException.class, () -> client.run(ArithmeticEngine.DOUBLE,
+                new ByteArrayInputStream((CASE_2 + "\n[{\"operation\":\"hold\"}]\n").getBytes(StandardCharsets.UTF_8)), out));
+
+        assertEquals("[{\"tax\":0.0},{\"tax\":10000.0},{\"tax\":0.0}]" + NEWLINE, out.toString(StandardCharsets.UTF_8));
+        assertFalse(exception.getMessage().isEmpty());
+    }
+
+    @Test
+    void shouldReportOperationWithoutTypeAfterEarlierAnswers() {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DaemonClient client = new DaemonClient(socketPath);
+        String input = CASE_2 + "\n[{\"unit-cost\":10, \"quantity\":100}]\n" + CASE_1 + "\n";
+
+        // When
+        IOException exception = assertThrows(IOException.class, () -> client.run(ArithmeticEngine.DOUBLE,
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out));
+
+        // Then
+        assertEquals("[{\"tax\":0.0},{\"tax\":10000.0},{\"tax\":0.0}]" + NEWLINE, out.toString(StandardCharsets.UTF_8));
+        assertFalse(exception.getMessage().isEmpty());
+    }
+
+    @Test
+    void shouldLeaveInputUnreadWithoutDaemon() throws IOException {
+        // Given
+        daemon.close();
+        ByteArrayInputStream in = new ByteArrayInputStream(CASE_1.getBytes(StandardCharsets.UTF_8));
+
+        // When
+        boolean handled = new DaemonClient(socketPath).run(ArithmeticEngine.DOUBLE, in, new ByteArrayOutputStream());
+
+        // Then
+        assertFalse(handled);
+        assertEquals(CASE_1.length(), in.available());
+    }
+
+    @Test
+    void shouldRefuseSecondDaemonOnSameSocket() {
+        CapitalGainsDaemon second = new CapitalGainsDaemon(new ObjectMapper(), socketPath);
+
+        assertThrows(IllegalStateException.class, second::start);
+    }
+
+    @Test
+    void shouldReplaceSocketLeftByStoppedDaemon() throws IOException {
+        // Given, a socket file nobody listens on
+        daemon.close();
+        Files.createFile(socketPath);
+
+        // When
+        daemon = new CapitalGainsDaemon(new ObjectMapper(), socketPath);
+        daemon.start();
+
+        // Then
+        assertEquals("[{\"tax\":0.0},{\"tax\":0.0},{\"tax\":0.0}]" + NEWLINE, run(ArithmeticEngine.DOUBLE, CASE_1));
+    }
+
+    @Test
+    void shouldCreateMissingSocketDirectoryForOwnerOnly() throws IOException {
+        // Given
+        Path privateSocket = directory.resolve("private").resolve("daemon.sock");
+
+        // When
+        try (CapitalGainsDaemon privateDaemon = new CapitalGainsDaemon(new ObjectMapper(), privateSocket)) {
+            privateDaemon.start();
+
+            // Then
+            assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(privateSocket.getParent()));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertTrue(new DaemonClient(privateSocket).run(ArithmeticEngine.DOUBLE,
+                    new ByteArrayInputStream(CASE_1.getBytes(StandardCharsets.UTF_8)), out));
+            assertEquals("[{\"tax\":0.0},{\"tax\":0.0},{\"tax\":0.0}]" + NEWLINE, out.toString(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.capitalgains.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapitalGainsHttpServerTest {
+
+    private static final String CASE_1 = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":100},"
+            + "{\"operation\":\"sell\", \"unit-cost\":15.00, \"quantity\":50},"
+            + "{\"operation\":\"sell\", \"unit-cost\":15.00, \"quantity\":50}]";
+    private static final String CASE_2 = "[{\"operation\":\"buy\", \"unit-cost\":10.00, \"quantity\":10000},"
+            + "{\"operation\":\"sell\", \"unit-cost\":20.00, \"quantity\":5000},"
+            + "{\"operation\":\"sell\", \"unit-cost\":5.00, \"quantity\":5000}]";
+
+    private CapitalGainsHttpServer server;
+    private HttpClient client;
+    private URI uri;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new CapitalGainsHttpServer(new CapitalGainsTaxCalculatorHandlerImpl(), new ObjectMapper(),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        client = HttpClient.newHttpClient();
+        uri = URI.create("http://localhost:" + server.getAddress().getPort() + CapitalGainsHttpServer.PATH);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> post(String contentType, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void shouldCalculateSingleOperationArray() throws Exception {
+        HttpResponse<String> response = post("application/json", CASE_2);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("[{\"tax\":0.0},{\"tax\":10000.0},{\"tax\":0.0}]", response.body());
+    }
+
+    @Test
+    void shouldCalculateEachNdjsonLineIndependently() throws Exception {
+        HttpResponse<String> response = post(CapitalGainsHttpServer.NDJSON, CASE_1 + "\n" + CASE_2 + "\n");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("[{\"tax\":0.0},{\"tax\":0.0},{\"tax\":0.0}]\n"
+                + "[{\"tax\":0.0},{\"tax\":10000.0},{\"tax\":0.0}]\n", response.body());
+    }
+
+    @Test
+    void shouldRejectMalformedInput() throws Exception {
+        assertEquals(400, post("application/json", "[{\"operation\":\"hold\"}]").statusCode());
+        assertEquals(400, post(CapitalGainsHttpServer.NDJSON, CASE_1 + "\n[{").statusCode());
+    }
+
+    @Test
+    void shouldRejectOperationWithoutType() throws Exception {
+        String operation = "[{\"unit-cost\":10, \"quantity\":100}]";
+
+        HttpResponse<String> single = post("application/json", operation);
+        HttpResponse<String> batch = post(CapitalGainsHttpServer.NDJSON, CASE_1 + "\n" + operation + "\n");
+
+        assertEquals(400, single.statusCode());
+        assertFalse(single.body().isEmpty());
+        assertEquals(400, batch.statusCode());
+        assertFalse(batch.body().isEmpty());
+    }
+
+    @Test
+    void shouldRejectOtherMethods() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(405, response.statusCode());
+    }
+
+    @Test
+    void shouldServeConcurrentLoad() throws Exception {
+        LoadGenerator.Report report = new LoadGenerator(uri, CASE_2, false).run(200, 8);
+
+        assertEquals(200, report.getRequests());
+        assertEquals(0, report.getErrors());
+        assertTrue(report.getPercentileNanos(0.99) > 0);
+    }
+}
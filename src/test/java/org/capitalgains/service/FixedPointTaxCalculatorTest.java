@@ -0,0 +1,71 @@
+package org.capitalgains.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointTaxCalculatorTest {
+
+    private FixedPointTaxCalculator calculator;
+
+    @BeforeEach
+    void setUp() {
+        calculator = new FixedPointTaxCalculator();
+    }
+
+    @Test
+    void shouldReturnZeroTaxWhenOperationBellowMinimumCost() {
+        // 10.00 * 1000 = 10000 is below the 20000 minimum
+        assertEquals(0, calculator.calculateTaxCents(1000, 500, 0, 1000));
+    }
+
+    @Test
+    void shouldReturnZeroTaxWhenOperationIsLoss() {
+        assertEquals(0, calculator.calculateTaxCents(1000, 1500, 0, 3000));
+    }
+
+    @Test
+    void shouldCalculateTaxInCents() {
+        // Profit: (25.75 - 20.25) * 1000 = 5500.00, tax: 1100.00
+        assertEquals(110000, calculator.calculateTaxCents(2575, 2025, 0, 1000));
+    }
+
+    @Test
+    void shouldRoundTaxHalfUp() {
+        // Profit: (20.01 - 20.00) * 20000 = 200.00 minus 199.99 loss = 0.01, tax 0.002 rounds to 0.00
+        assertEquals(0, calculator.calculateTaxCents(2001, 2000, 19999, 20000));
+        // Profit 200.00 minus 199.97 loss = 0.03, tax 0.006 rounds to 0.01
+        assertEquals(1, calculator.calculateTaxCents(2001, 2000, 19997, 20000));
+    }
+
+    @Test
+    void shouldNotDriftOnCentValues() {
+        // In double arithmetic (0.3 - 0.1) * 100000 is 19999.999999999996
+        double tax = new FixedPointTaxCalculator(0.2, 0).calculateTax(0.3, 0.1, 0.0, 100000);
+        assertEquals(4000.0, tax);
+    }
+
+    @Test
+    void shouldCarryLossForward() {
+        // Selling at a loss adds to the carried loss
+        assertEquals(25000 + 100, calculator.carryLossCents(1500, 2000, 100, 50));
+        // Selling with profit consumes the carried loss
+        assertEquals(20000 - 5000, calculator.carryLossCents(2100, 2000, 20000, 50));
+        // Profit larger than the carried loss resets it
+        assertEquals(0, calculator.carryLossCents(3000, 2000, 100, 50));
+    }
+
+    @Test
+    void shouldFailOnOverflowInsteadOfWrapping() {
+        assertThrows(ArithmeticException.class,
+                () -> calculator.calculateTaxCents(Long.MAX_VALUE / 2, 0, 0, 10));
+    }
+
+    @Test
+    void shouldCalculateMediumPriceRoundedToCents() {
+        // (10 * 20.00 + 5 * 30.00) / 15 = 23.333... rounds to 23.33
+        assertEquals(2333, new FixedPointMediumPriceCalculator().calculateCents(3000, 2000, 10, 5));
+        // (1 * 0.01 + 1 * 0.02) / 2 = 0.015 rounds up to 0.02
+        assertEquals(2, new FixedPointMediumPriceCalculator().calculateCents(2, 1, 1, 1));
+    }
+}
@@ -61,4 +61,3 @@ class MediumPriceCalculatorImplTest {
         assertEquals(price, result, 0.001);
     }
 }
-
@@ -112,4 +112,21 @@ class TaxCalculatorImplTest {
         double tax = calculator.calculateTax(30.0, 25.0, 0.0, 10000);
         assertEquals(10000.0, tax, 0.001);
     }
+
+    @Test
+    void shouldCalculateTaxesForIndependentSells() {
+        // Same inputs as the scalar cases: below minimum, loss, profit and profit with loss deduction
+        double[] prices = {10.0, 10.0, 25.0, 30.0};
+        double[] mediumPrices = {15.0, 15.0, 20.0, 25.0};
+        double[] lossValues = {0.0, 0.0, 0.0, 10000.0};
+        int[] quantities = {1000, 3000, 1000, 10000};
+        double[] taxes = new double[4];
+
+        calculator.calculateTaxes(prices, mediumPrices, lossValues, quantities, taxes, 4);
+
+        for (int i = 0; i < taxes.length; i++) {
+            assertEquals(calculator.calculateTax(prices[i], mediumPrices[i], lossValues[i], quantities[i]), taxes[i]);
+        }
+        assertEquals(8000.0, taxes[3], 0.001);
+    }
 }
@@ -0,0 +1,79 @@
+package org.capitalgains.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorTaxCalculatorTest {
+
+    private final TaxCalculator scalar = TaxKernel.SCALAR.createTaxCalculator();
+    private final TaxCalculator vector = TaxKernel.VECTOR.createTaxCalculator();
+
+    @Test
+    void shouldUseVectorKernelWhenModuleIsPresent() {
+        // The surefire configuration adds jdk.incubator.vector
+        assertTrue(TaxKernel.isVectorSupported());
+        assertInstanceOf(VectorTaxCalculator.class, vector);
+        assertInstanceOf(TaxCalculatorImpl.class, scalar);
+    }
+
+    @Test
+    void shouldMatchScalarResultsForIndependentSells() {
+        // Given, a length that leaves a scalar tail for any lane count
+        int length = 1_003;
+        Random random = new Random(3L);
+        double[] prices = new double[length];
+        double[] mediumPrices = new double[length];
+        double[] lossValues = new double[length];
+        int[] quantities = new int[length];
+        for (int i = 0; i < length; i++) {
+            prices[i] = Math.round(random.nextDouble() * 5_000) / 100.0;
+            mediumPrices[i] = i % 10 == 0 ? prices[i] : Math.round(random.nextDouble() * 5_000) / 100.0;
+            lossValues[i] = i % 3 == 0 ? 0 : Math.round(random.nextDouble() * 1_000_000) / 100.0;
+            quantities[i] = 1 + random.nextInt(5_000);
+        }
+        // Exactly on the 20000 threshold
+        prices[5] = 20.0;
+        mediumPrices[5] = 10.0;
+        quantities[5] = 1_000;
+        double[] expected = new double[length];
+        double[] actual = new double[length];
+
+        // When
+        scalar.calculateTaxes(prices, mediumPrices, lossValues, quantities, expected, length);
+        vector.calculateTaxes(prices, mediumPrices, lossValues, quantities, actual, length);
+
+        // Then
+        assertArrayEquals(expected, actual);
+        assertEquals(2_000.0 - lossValues[5] * 0.2, actual[5], 1e-9);
+    }
+
+    @Test
+    void shouldMatchScalarResultsAgainstOnePosition() {
+        // Given
+        int length = 517;
+        Random random = new Random(5L);
+        double[] prices = new double[length];
+        int[] quantities = new int[length];
+        for (int i = 0; i < length; i++) {
+            prices[i] = Math.round(random.nextDouble() * 5_000) / 100.0;
+            quantities[i] = 1 + random.nextInt(5_000);
+        }
+        double[] expected = new double[length];
+        double[] actual = new double[length];
+
+        // When
+        scalar.calculateTaxes(prices, 25.0, 3_000.0, quantities, expected, length);
+        vector.calculateTaxes(prices, 25.0, 3_000.0, quantities, actual, length);
+
+        // Then
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void shouldRejectUnknownKernel() {
+        assertThrows(IllegalArgumentException.class, () -> TaxKernel.fromOptionName("gpu"));
+    }
+}
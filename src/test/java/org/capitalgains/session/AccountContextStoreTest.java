@@ -0,0 +1,133 @@
+package org.capitalgains.session;
+
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
+import org.capitalgains.model.CapitalGainsContextSnapshot;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationType;
+import org.capitalgains.model.Tax;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountContextStoreTest {
+
+    private AccountContextStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new AccountContextStore(new CapitalGainsTaxCalculatorHandlerImpl(), 4);
+    }
+
+    @Test
+    void shouldKeepAccountsIndependent() {
+        // When
+        store.apply(1L, createOperation(OperationType.BUY, 10000, 10.00));
+        store.apply(2L, createOperation(OperationType.BUY, 10000, 30.00));
+        Tax first = store.apply(1L, createOperation(OperationType.SELL, 5000, 20.00));
+        Tax second = store.apply(2L, createOperation(OperationType.SELL, 5000, 20.00));
+
+        // Then
+        assertEquals(10000.0, first.getTax());
+        assertEquals(0.0, second.getTax());
+        assertEquals(new CapitalGainsContextSnapshot(10.0, 5000, 0), store.snapshot(1L));
+        assertEquals(new CapitalGainsContextSnapshot(30.0, 5000, 50000.0), store.snapshot(2L));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void shouldReturnSequenceGivenByTheLog() throws IOException {
+        // Given
+        store.apply(1L, createOperation(OperationType.BUY, 10000, 10.00));
+        OperationLog log = (accountId, operation) -> 42L;
+
+        // When
+        LoggedTax applied = store.apply(1L, createOperation(OperationType.SELL, 5000, 20.00), log);
+
+        // Then
+        assertEquals(42L, applied.getSequence());
+        assertEquals(10000.0, applied.getTax().getTax());
+    }
+
+    @Test
+    void shouldReturnNullSnapshotForUnknownAccount() {
+        assertNull(store.snapshot(42L));
+    }
+
+    @Test
+    void shouldRestoreAccountState() {
+        // Given
+        store.restore(-7L, new CapitalGainsContextSnapshot(10.0, 10000, 0));
+
+        // When
+        Tax tax = store.apply(-7L, createOperation(OperationType.SELL, 5000, 20.00));
+
+        // Then
+        assertEquals(10000.0, tax.getTax());
+    }
+
+    @Test
+    void shouldKeepStateWhileGrowing() {
+        // When
+        for (long accountId = 0; accountId < 10_000; accountId++) {
+            store.apply(accountId, createOperation(OperationType.BUY, (int) accountId + 1, 10.00));
+        }
+
+        // Then
+        assertEquals(10_000, store.size());
+        for (long accountId = 0; accountId < 10_000; accountId++) {
+            assertEquals((int) accountId + 1, store.snapshot(accountId).getStocksQuantity());
+        }
+        Map<Long, Integer> visited = new HashMap<>();
+        store.forEach((accountId, mediumPrice, stocksQuantity, lossValue) -> visited.put(accountId, stocksQuantity));
+        assertEquals(10_000, visited.size());
+        assertEquals(500, visited.get(499L));
+    }
+
+    @Test
+    void shouldApplyConcurrentUpdatesWithoutLosingAny() throws Exception {
+        // Given
+        int threads = 8;
+        int accounts = 1000;
+        int buysPerAccount = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When: every thread buys one stock per account, so all of them touch the same accounts
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < buysPerAccount; i++) {
+                    for (long accountId = 0; accountId < accounts; accountId++) {
+                        store.apply(accountId, createOperation(OperationType.BUY, 1, 10.00));
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        for (long accountId = 0; accountId < accounts; accountId++) {
+            assertEquals(threads * buysPerAccount, store.snapshot(accountId).getStocksQuantity());
+        }
+    }
+
+    private Operation createOperation(OperationType type, int quantity, double unitCost) {
+        Operation operation = new Operation();
+        operation.setOperationType(type);
+        operation.setQuantity(quantity);
+        operation.setUnitCost(unitCost);
+        return operation;
+    }
+}
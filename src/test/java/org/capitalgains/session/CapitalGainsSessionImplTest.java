@@ -0,0 +1,93 @@
+package org.capitalgains.session;
+
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandler;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
+import org.capitalgains.model.CapitalGainsContextSnapshot;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationType;
+import org.capitalgains.model.Tax;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapitalGainsSessionImplTest {
+
+    private CapitalGainsSession session;
+
+    @BeforeEach
+    void setUp() {
+        session = new CapitalGainsSessionImpl();
+    }
+
+    @Test
+    void shouldMatchFullReplayWhenApplyingOneOperationAtATime() {
+        // Given
+        List<Operation> operations = Arrays.asList(
+                createOperation(OperationType.BUY, 1000, 20.00),
+                createOperation(OperationType.SELL, 500, 10.00),
+                createOperation(OperationType.BUY, 500, 15.00),
+                createOperation(OperationType.SELL, 1000, 25.00)
+        );
+        CapitalGainsTaxCalculatorHandler handler = new CapitalGainsTaxCalculatorHandlerImpl();
+
+        // When
+        List<Tax> replayed = handler.calculateTaxes(operations);
+
+        // Then
+        for (int i = 0; i < operations.size(); i++) {
+            assertEquals(replayed.get(i).getTax(), session.apply(operations.get(i)).getTax());
+        }
+    }
+
+    @Test
+    void shouldExposeStateThroughSnapshot() {
+        // When
+        session.apply(createOperation(OperationType.BUY, 1000, 20.00));
+        session.apply(createOperation(OperationType.SELL, 500, 10.00));
+
+        // Then
+        assertEquals(new CapitalGainsContextSnapshot(20.0, 500, 5000.0), session.snapshot());
+    }
+
+    @Test
+    void shouldRestorePreviousState() {
+        // Given
+        session.apply(createOperation(OperationType.BUY, 10000, 10.00));
+        CapitalGainsContextSnapshot snapshot = session.snapshot();
+        Tax expected = session.apply(createOperation(OperationType.SELL, 5000, 20.00));
+
+        // When
+        session.restore(snapshot);
+        Tax actual = session.apply(createOperation(OperationType.SELL, 5000, 20.00));
+
+        // Then
+        assertEquals(10000.0, expected.getTax());
+        assertEquals(expected.getTax(), actual.getTax());
+    }
+
+    @Test
+    void shouldStartFromGivenSnapshot() {
+        // Given
+        CapitalGainsSession resumed = new CapitalGainsSessionImpl(new CapitalGainsTaxCalculatorHandlerImpl(),
+                new CapitalGainsContextSnapshot(10.0, 10000, 0));
+
+        // When
+        Tax tax = resumed.apply(createOperation(OperationType.SELL, 5000, 20.00));
+
+        // Then
+        assertEquals(10000.0, tax.getTax());
+        assertEquals(5000, resumed.snapshot().getStocksQuantity());
+    }
+
+    private Operation createOperation(OperationType type, int quantity, double unitCost) {
+        Operation operation = new Operation();
+        operation.setOperationType(type);
+        operation.setQuantity(quantity);
+        operation.setUnitCost(unitCost);
+        return operation;
+    }
+}
@@ -0,0 +1,61 @@
+package org.capitalgains.session;
+
+import org.capitalgains.benchmark.PortfolioGenerator;
+import org.capitalgains.handler.CapitalGainsTaxCalculatorHandlerImpl;
+import org.capitalgains.model.CapitalGainsContextSnapshot;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationBatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixStateIndexTest {
+
+    @Test
+    void shouldMatchSequentialReplayForEveryOperation() {
+        // Given
+        OperationBatch batch = PortfolioGenerator.generate(1000, 0.4, 42L);
+        List<Operation> operations = PortfolioGenerator.toOperations(batch);
+        CapitalGainsSession session = new CapitalGainsSessionImpl();
+        CapitalGainsContextSnapshot[] expected = new CapitalGainsContextSnapshot[operations.size()];
+        for (int i = 0; i < operations.size(); i++) {
+            session.apply(operations.get(i));
+            expected[i] = session.snapshot();
+        }
+
+        for (int stride : new int[]{1, 7, 64, 1000, 5000}) {
+            // When
+            PrefixStateIndex index = new PrefixStateIndex(batch, new CapitalGainsTaxCalculatorHandlerImpl(), stride);
+
+            // Then
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], index.stateAfter(i), "stride " + stride + ", operation " + i);
+            }
+        }
+    }
+
+    @Test
+    void shouldNotBeAffectedByLaterChangesToTheBatch() {
+        // Given
+        OperationBatch batch = PortfolioGenerator.generate(10, 0.0, 1L);
+        PrefixStateIndex index = new PrefixStateIndex(batch);
+        CapitalGainsContextSnapshot before = index.stateAfter(9);
+
+        // When
+        batch.clear();
+        batch.add(OperationBatch.SELL, 1.0, 1);
+
+        // Then
+        assertEquals(before, index.stateAfter(9));
+    }
+
+    @Test
+    void shouldRejectIndexOutOfBounds() {
+        PrefixStateIndex index = new PrefixStateIndex(PortfolioGenerator.generate(3, 0.5, 7L));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> index.stateAfter(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.stateAfter(3));
+    }
+}
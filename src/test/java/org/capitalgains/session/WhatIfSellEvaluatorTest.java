@@ -0,0 +1,81 @@
+package org.capitalgains.session;
+
+import org.capitalgains.handler.SellOperationHandlerImpl;
+import org.capitalgains.model.CapitalGainsContext;
+import org.capitalgains.model.CapitalGainsContextSnapshot;
+import org.capitalgains.model.Operation;
+import org.capitalgains.model.OperationType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WhatIfSellEvaluatorTest {
+
+    private final WhatIfSellEvaluator evaluator = new WhatIfSellEvaluator();
+
+    @Test
+    void shouldMatchSellHandlerForEveryCandidate() {
+        // Given
+        CapitalGainsContextSnapshot snapshot = new CapitalGainsContextSnapshot(20.0, 10_000, 3_000.0);
+        Random random = new Random(11L);
+        int length = 2_000;
+        double[] prices = new double[length];
+        int[] quantities = new int[length];
+        for (int i = 0; i < length; i++) {
+            prices[i] = Math.round(random.nextDouble() * 4_000) / 100.0;
+            quantities[i] = 1 + random.nextInt(10_000);
+        }
+        double[] taxes = new double[length];
+        double[] realizedProfits = new double[length];
+        double[] lossValues = new double[length];
+
+        // When
+        evaluator.evaluate(snapshot, prices, quantities, taxes, realizedProfits, lossValues, length);
+
+        // Then
+        SellOperationHandlerImpl sellHandler = new SellOperationHandlerImpl();
+        for (int i = 0; i < length; i++) {
+            CapitalGainsContext context = new CapitalGainsContext();
+            context.restore(snapshot);
+            Operation operation = new Operation();
+            operation.setOperationType(OperationType.SELL);
+            operation.setUnitCost(prices[i]);
+            operation.setQuantity(quantities[i]);
+
+            assertEquals(sellHandler.handle(operation, context).getTax(), taxes[i]);
+            assertEquals((prices[i] - snapshot.getMediumPriceValue()) * quantities[i], realizedProfits[i], 1e-6);
+            assertEquals(context.getLossValue(), lossValues[i]);
+        }
+    }
+
+    @Test
+    void shouldNotModifyLiveContext() {
+        // Given
+        CapitalGainsContext context = new CapitalGainsContext();
+        context.setMediumPriceValue(10.0);
+        context.setStocksQuantity(5_000);
+        context.setLossValue(1_000.0);
+
+        double[] taxes = new double[2];
+        double[] realizedProfits = new double[2];
+        double[] lossValues = new double[2];
+
+        // When
+        evaluator.evaluate(context, new double[]{5.0, 30.0}, new int[]{1_000, 5_000},
+                taxes, realizedProfits, lossValues, 2);
+
+        // Then
+        assertEquals(new CapitalGainsContextSnapshot(10.0, 5_000, 1_000.0), context.snapshot());
+        assertArrayEquals(new double[]{0.0, 19_800.0}, taxes);
+        assertArrayEquals(new double[]{-5_000.0, 100_000.0}, realizedProfits);
+        assertArrayEquals(new double[]{6_000.0, 0.0}, lossValues);
+    }
+
+    @Test
+    void shouldRejectShortOutputArrays() {
+        assertThrows(IllegalArgumentException.class, () -> evaluator.evaluate(CapitalGainsContextSnapshot.EMPTY,
+                new double[2], new int[2], new double[1], new double[2], new double[2], 2));
+    }
+}